@@ -35,8 +35,7 @@ package sae.analyses.profiler.interfaces
 import sae.bytecode.{BytecodeDatabaseFactory, BytecodeDatabase}
 import idb.Relation
 import sae.analyses.profiler.statistics.{SimpleReplayStatistic, ReplayStatistic, SimpleDataStatistic, DataStatistic}
-import sae.analyses.profiler.util.{DatabaseReader, ReplayEventType, ReplayEvent}
-import java.io.FileInputStream
+import sae.analyses.profiler.util.{DatabaseReader, ReplayEventType, ReplayChange}
 
 
 /**
@@ -53,7 +52,7 @@ trait AbstractAnalysesReplayProfiler extends AbstractAnalysesProfiler {
 
 	override def getResults = resultsList
 
-	def applyStepWithJarRead(set: Seq[ReplayEvent]): Long = {
+	def applyStepWithJarRead(set: Seq[ReplayChange]): Long = {
 		var taken: Long = 0
 		val (additions, deletions, updates) = sortEventsByType (set)
 
@@ -69,35 +68,35 @@ trait AbstractAnalysesReplayProfiler extends AbstractAnalysesProfiler {
 		taken
 	}
 
-    def sortEventsByType(events: Seq[ReplayEvent]): (Seq[ReplayEvent], Seq[ReplayEvent], Seq[ReplayEvent]) = {
-        var additions: List[ReplayEvent] = Nil
-        var deletions: List[ReplayEvent] = Nil
-        var updates: List[ReplayEvent] = Nil
+    def sortEventsByType(events: Seq[ReplayChange]): (Seq[ReplayChange], Seq[ReplayChange], Seq[ReplayChange]) = {
+        var additions: List[ReplayChange] = Nil
+        var deletions: List[ReplayChange] = Nil
+        var updates: List[ReplayChange] = Nil
         for (event <- events) event.eventType match {
             case ReplayEventType.ADDED => additions = event :: additions
             case ReplayEventType.REMOVED => deletions = event :: deletions
-            case ReplayEventType.CHANGED if event.previousEvent.isDefined => updates = event :: updates
-            case ReplayEventType.CHANGED if !event.previousEvent.isDefined => additions = event :: additions
+            case ReplayEventType.CHANGED if event.previousChange.isDefined => updates = event :: updates
+            case ReplayEventType.CHANGED if !event.previousChange.isDefined => additions = event :: additions
         }
         (additions, deletions, updates)
     }
 
-    def applyEvents(database: DatabaseReader, additions: Seq[ReplayEvent], deletions: Seq[ReplayEvent], updates: Seq[ReplayEvent]) {
+    def applyEvents(database: DatabaseReader, additions: Seq[ReplayChange], deletions: Seq[ReplayChange], updates: Seq[ReplayChange]) {
         additions.foreach (event => {
-            val stream = new FileInputStream (event.eventFile)
+            val stream = event.openStream ()
             database.addClassFile (stream)
             stream.close ()
         }
         )
         deletions.foreach (event => {
-            val stream = new java.io.FileInputStream (event.previousEvent.getOrElse (throw new IllegalStateException ("remove event without predecessor")).eventFile)
+            val stream = event.previousChange.getOrElse (throw new IllegalStateException ("remove event without predecessor")).openStream ()
             database.removeClassFile (stream)
             stream.close ()
         }
         )
         updates.foreach (event => {
-            val oldStream = new java.io.FileInputStream (event.previousEvent.getOrElse (throw new IllegalStateException ("change event without predecessor")).eventFile)
-            val newStream = new java.io.FileInputStream (event.eventFile)
+            val oldStream = event.previousChange.getOrElse (throw new IllegalStateException ("change event without predecessor")).openStream ()
+            val newStream = event.openStream ()
             database.updateClassFile (oldStream, newStream)
             oldStream.close ()
             newStream.close ()
@@ -106,7 +105,7 @@ trait AbstractAnalysesReplayProfiler extends AbstractAnalysesProfiler {
 
     }
 
-    def dataStatistics(eventSets: List[Seq[ReplayEvent]]): List[DataStatistic] = {
+    def dataStatistics(eventSets: Seq[Seq[ReplayChange]]): List[DataStatistic] = {
 
         var result: List[DataStatistic] = Nil
 
@@ -132,10 +131,10 @@ trait AbstractAnalysesReplayProfiler extends AbstractAnalysesProfiler {
 
 
 
-    def getResultsWithReadingJars(eventSets: List[Seq[ReplayEvent]], queries: List[String]): List[Long] = {
+    def getResultsWithReadingJars(eventSets: Seq[Seq[ReplayChange]], queries: List[String]): List[Long] = {
 
 		val queryResults : List[Relation[_]] = queries map getAnalysis
-		val result = eventSets map (s => { applyStepWithJarRead(s)})
+		val result = eventSets.map (s => { applyStepWithJarRead(s)}).toList
 
 		result
     }
@@ -161,7 +160,7 @@ trait AbstractAnalysesReplayProfiler extends AbstractAnalysesProfiler {
         statistics.toList
     }
 
-    def measure(iterations: Int, eventSets: List[Seq[ReplayEvent]], queries: List[String]): List[ReplayStatistic] = {
+    def measure(iterations: Int, eventSets: Seq[Seq[ReplayChange]], queries: List[String]): List[ReplayStatistic] = {
         measureSample (iterations, eventSets.size)(() => getResultsWithReadingJars (eventSets, queries))
 
     }
@@ -170,7 +169,7 @@ trait AbstractAnalysesReplayProfiler extends AbstractAnalysesProfiler {
      * Perform the warmup by doing exactly the same operation as in the measurement.
      * The warmup is must return the number of results returned by the measured analyses.
      */
-    def warmup(iterations: Int, eventSets: List[Seq[ReplayEvent]], queries: List[String]) {
+    def warmup(iterations: Int, eventSets: Seq[Seq[ReplayChange]], queries: List[String]) {
 		if (iterations < 1)
 			return
 
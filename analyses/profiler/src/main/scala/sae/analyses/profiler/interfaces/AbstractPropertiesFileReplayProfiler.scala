@@ -33,7 +33,7 @@
 package sae.analyses.profiler.interfaces
 
 import sae.bytecode.profiler.statistics.EventStatistic
-import sae.analyses.profiler.util.{PropertiesFileImporter, ReplayEvent, ReplayReader}
+import sae.analyses.profiler.util.{ReplayLog, PropertiesFileImporter, ReplayChange, ReplayReader}
 import java.io.{FileInputStream, FileWriter, PrintWriter, File}
 import sae.analyses.profiler.statistics.{ReplayStatistic, DataStatistic, SampleStatistic}
 import sae.analyses.profiler.measure.units.MeasurementUnit
@@ -83,54 +83,67 @@ trait AbstractPropertiesFileReplayProfiler extends PropertiesFileImporter
 
 		println("Warmup: " + warmupIterations + " times : " + queries + " on " + warmupLocation)
 
-		val warmupEventReader = new ReplayReader(new File(warmupLocation))
-		val warmupEvents = warmupEventReader.getAllEventSets
-
-        try {
-            warmup(warmupIterations, warmupEvents, queries)
-        } catch {
-            case e : Exception => {
-                println("Executing " + propertiesFile + " returned an exception.")
-                e.printStackTrace()
-                return
+		val warmupCompleted = withEventSets(warmupLocation) { warmupEvents =>
+            try {
+                warmup(warmupIterations, warmupEvents, queries)
+                true
+            } catch {
+                case e : Exception => {
+                    println("Executing " + propertiesFile + " returned an exception.")
+                    e.printStackTrace()
+                    false
+                }
             }
         }
+        if (!warmupCompleted)
+            return
 
-		val measurementEventReader = new ReplayReader(new File(measurementLocation))
-		val measurementEvents = measurementEventReader.getAllEventSets
-
-        val dataStatisticList = getResults
-
-		val memoryMXBean = java.lang.management.ManagementFactory.getMemoryMXBean
-		memoryMXBean.gc()
-
-		println("Measure: " + measurementIterations + " times : " + queries + " on " + measurementLocation)
-		val statistics : List[ReplayStatistic] = measure(measurementIterations, measurementEvents, queries)
-		println("\tdone")
+		withEventSets(measurementLocation) { measurementEvents =>
 
+            val dataStatisticList = getResults
 
+            val memoryMXBean = java.lang.management.ManagementFactory.getMemoryMXBean
+            memoryMXBean.gc()
 
-		if (dataStatisticList.size != measurementEvents.size || statistics
-			.size != measurementEvents.size) {
-			println(dataStatisticList.size)
-			println(measurementEvents.size)
-			println(statistics.size)
-
-
-			sys.error("different sizes for sampled data and list of event sets")
-
+            println("Measure: " + measurementIterations + " times : " + queries + " on " + measurementLocation)
+            val statistics : List[ReplayStatistic] = measure(measurementIterations, measurementEvents, queries)
+            println("\tdone")
 
+            if (dataStatisticList.size != measurementEvents.size || statistics
+                .size != measurementEvents.size) {
+                println(dataStatisticList.size)
+                println(measurementEvents.size)
+                println(statistics.size)
 
+                sys.error("different sizes for sampled data and list of event sets")
+            }
 
-			return
+            reportCSV(outputPath + outputFile, warmupIterations, measurementIterations, measurementLocation, measurementEvents, dataStatisticList, queries, statistics)
         }
-
-  		reportCSV(outputPath + outputFile, warmupIterations, measurementIterations, measurementLocation, measurementEvents, dataStatisticList, queries, statistics)
 	}
 
 
+    /**
+     * Reads the event sets from a replay log if location contains one, and from the files recorded by Lyrebird otherwise,
+     * and passes them to f. The event sets of a replay log are read lazily and the log is closed when f returns.
+     */
+    def withEventSets[T](location: String)(f: Seq[Seq[ReplayChange]] => T): T = {
+        val file = new File(location)
+        if (ReplayLog.isLog(file)) {
+            val log = ReplayLog.open(file)
+            try {
+                f(log)
+            }
+            finally {
+                log.close()
+            }
+        }
+        else
+            f(new ReplayReader(file).getAllEventSets)
+    }
+
     def reportCSV(outputFile: String, warmUpIterations: Int, measurementIterations: Int, measurementLocation: String,
-                  eventSets: List[Seq[ReplayEvent]], dataStatistics: List[DataStatistic], queries: List[String],
+                  eventSets: Seq[Seq[ReplayChange]], dataStatistics: List[DataStatistic], queries: List[String],
                   statistics: List[ReplayStatistic]) {
 
 
@@ -202,13 +215,13 @@ trait AbstractPropertiesFileReplayProfiler extends PropertiesFileImporter
     /**
      * Perform the actual measurement.
      */
-    def measure(iterations: Int, eventSets: List[Seq[ReplayEvent]], queries: List[String]): List[ReplayStatistic]
+    def measure(iterations: Int, eventSets: Seq[Seq[ReplayChange]], queries: List[String]): List[ReplayStatistic]
 
     /**
      * Perform the warmup by doing exactly the same operation as in the measurement.
      * The warmup is must return the number of results returned by the measured analyses.
      */
-    def warmup(iterations: Int, eventSets: List[Seq[ReplayEvent]], queries: List[String])
+    def warmup(iterations: Int, eventSets: Seq[Seq[ReplayChange]], queries: List[String])
 
 
 }
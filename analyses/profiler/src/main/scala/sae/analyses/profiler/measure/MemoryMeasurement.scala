@@ -33,6 +33,8 @@
 package sae.analyses.profiler.measure
 
 import sae.analyses.profiler.statistics.{ReplayStatistic, SimpleReplayStatistic}
+import idb.Relation
+import idb.metrics.MemoryReport
 
 
 /**
@@ -62,6 +64,17 @@ trait MemoryMeasurement
         r
     }
 
+    /**
+     * Measures the memory retained by the operators of the given queries.
+     * In contrast to memory, no garbage collections are forced and the result can be attributed to single operators
+     * via the returned report.
+     */
+    def retainedMemory(mu: (Long) ⇒ Unit)(queries: Relation[_]*): MemoryReport = {
+        val report = MemoryReport (queries: _*)
+        mu (report.totalBytes)
+        report
+    }
+
     /**
      * performs the measurement of function f in iterations times.
      * Two statistics are returned
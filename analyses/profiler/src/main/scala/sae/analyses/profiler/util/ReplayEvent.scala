@@ -31,7 +31,7 @@
  */
 package sae.analyses.profiler.util
 
-import java.io.File
+import java.io.{FileInputStream, InputStream, File}
 
 /**
  * Data class that represent a change to one classfile
@@ -53,6 +53,9 @@ case class ReplayEvent(eventType: ReplayEventType.Value,
                  binaryName: String,
                  eventFile: File,
                  previousEvent: Option[ReplayEvent])
+    extends ReplayChange
 {
+    def previousChange: Option[ReplayChange] = previousEvent
 
+    def openStream(): InputStream = new FileInputStream (eventFile)
 }
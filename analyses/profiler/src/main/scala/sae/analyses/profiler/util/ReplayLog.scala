@@ -0,0 +1,108 @@
+/* License (BSD Style License):
+ * Copyright (c) 2011
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische 
+ *    Universität Darmstadt nor the names of its contributors may be used to 
+ *    endorse or promote products derived from this software without specific 
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package sae.analyses.profiler.util
+
+import java.io.File
+
+/**
+ * An append-only binary log of replay events together with an offset index of the event sets.
+ * A log location is a directory that contains two files:
+ *
+ * events.log: a header (magic number, version), followed by the records of all events.
+ * Each record is written as
+ * [record length: Int] [event type id: Byte] [event time: Long] [offset of the previous record of the class: Long]
+ * [name length: Int] [binary name: UTF-8] [class file length: Int] [class file]
+ * The offset of the previous record is -1, if there is no previous record.
+ *
+ * events.idx: one entry per event set, written after all records of the set
+ * [event time: Long] [offset of the first record: Long] [offset after the last record: Long] [record count: Int]
+ *
+ * Records that are not covered by the index, e.g., after an interrupted import, are ignored and overwritten by
+ * the next append.
+ */
+object ReplayLog
+{
+    val Magic = 0x5341454c
+
+    val Version = 1
+
+    val HeaderBytes = 8
+
+    val IndexEntryBytes = 28
+
+    val LogFileName = "events.log"
+
+    val IndexFileName = "events.idx"
+
+    def logFile(location: File): File = new File (location, LogFileName)
+
+    def indexFile(location: File): File = new File (location, IndexFileName)
+
+    /**
+     * Returns true if location contains a replay log
+     */
+    def isLog(location: File): Boolean =
+        location.isDirectory && logFile (location).isFile && indexFile (location).isFile
+
+    /**
+     * Opens the log at location for reading
+     */
+    def open(location: File): ReplayLogReader = new ReplayLogReader (location)
+
+    /**
+     * Reads the event sets from the per-file layout of Lyrebird.Recorder and appends them to the log at target.
+     * Returns the number of converted event sets.
+     */
+    def convert(source: File, target: File): Int = {
+        val eventSets = new ReplayReader (source).getAllEventSets
+        val writer = new ReplayLogWriter (target)
+        try {
+            eventSets.foreach (writer.append)
+        }
+        finally {
+            writer.close ()
+        }
+        eventSets.size
+    }
+
+    /**
+     * Converts the recordings given as first argument into a log in the directory given as second argument.
+     */
+    def main(args: Array[String]) {
+        if (args.length != 2) {
+            System.err.println ("Usage: ReplayLog <recorder output directory> <log directory>")
+            sys.exit (1)
+        }
+        val count = convert (new File (args (0)), new File (args (1)))
+        println ("Converted " + count + " event sets to " + args (1))
+    }
+}
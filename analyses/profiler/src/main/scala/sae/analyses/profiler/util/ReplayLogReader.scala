@@ -0,0 +1,183 @@
+/* License (BSD Style License):
+ * Copyright (c) 2011
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische 
+ *    Universität Darmstadt nor the names of its contributors may be used to 
+ *    endorse or promote products derived from this software without specific 
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package sae.analyses.profiler.util
+
+import java.io.{Closeable, EOFException, IOException, InputStream, RandomAccessFile, File}
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+
+/**
+ * Reads the replay log at location; see ReplayLog for the format.
+ * Only the index is read when the log is opened. An event set is memory mapped and decoded when it is accessed,
+ * and the class files are read directly from the mapped log. Hence, event sets that are no longer referenced
+ * can be collected and replaying runs in constant heap memory.
+ */
+class ReplayLogReader(val location: File)
+    extends IndexedSeq[Seq[ReplayChange]]
+    with Closeable
+{
+    private val log = new RandomAccessFile (ReplayLog.logFile (location), "r").getChannel
+
+    private val index = {
+        val channel = new RandomAccessFile (ReplayLog.indexFile (location), "r").getChannel
+        try {
+            val entries = channel.size () / ReplayLog.IndexEntryBytes
+            channel.map (FileChannel.MapMode.READ_ONLY, 0, entries * ReplayLog.IndexEntryBytes)
+        }
+        finally {
+            channel.close ()
+        }
+    }
+
+    {
+        val header = ByteBuffer.allocate (ReplayLog.HeaderBytes)
+        try {
+            readFully (header, 0)
+            if (header.getInt (0) != ReplayLog.Magic || header.getInt (4) != ReplayLog.Version)
+                throw new IOException ("not a replay log: " + ReplayLog.logFile (location))
+        }
+        catch {
+            case e: IOException =>
+                log.close ()
+                throw e
+        }
+    }
+
+    /**
+     * Fills buffer from the log starting at offset; a short read means the log is truncated.
+     */
+    private def readFully(buffer: ByteBuffer, offset: Long) {
+        var position = offset
+        while (buffer.hasRemaining) {
+            val read = log.read (buffer, position)
+            if (read < 0)
+                throw new EOFException ("unexpected end of replay log: " + ReplayLog.logFile (location))
+            position += read
+        }
+    }
+
+    val length: Int = index.capacity () / ReplayLog.IndexEntryBytes
+
+    def eventTime(i: Int): Long = index.getLong (i * ReplayLog.IndexEntryBytes)
+
+    /**
+     * Returns the i-th event set in ascending order of event time.
+     */
+    def apply(i: Int): Seq[ReplayChange] = {
+        if (i < 0 || i >= length)
+            throw new IndexOutOfBoundsException (i.toString)
+
+        val entry = i * ReplayLog.IndexEntryBytes
+        val start = index.getLong (entry + 8)
+        val end = index.getLong (entry + 16)
+        val count = index.getInt (entry + 24)
+
+        val buffer = log.map (FileChannel.MapMode.READ_ONLY, start, end - start)
+        val events = new Array[ReplayChange](count)
+        var position = 0
+        var j = 0
+        while (j < count) {
+            events (j) = decode (buffer, position, start + position)
+            position += 4 + buffer.getInt (position)
+            j += 1
+        }
+        events
+    }
+
+    /**
+     * Reads the single record at offset, i.e., the target of a link to a previous record.
+     */
+    private[util] def record(offset: Long): ReplayChange = {
+        val length = ByteBuffer.allocate (4)
+        readFully (length, offset)
+        val buffer = log.map (FileChannel.MapMode.READ_ONLY, offset, 4 + length.getInt (0))
+        decode (buffer, 0, offset)
+    }
+
+    private def decode(buffer: ByteBuffer, position: Int, offset: Long): ReplayChange = {
+        val eventType = ReplayEventType (buffer.get (position + 4))
+        val eventTime = buffer.getLong (position + 5)
+        val previousOffset = buffer.getLong (position + 13)
+        val nameLength = buffer.getInt (position + 21)
+        val name = new Array[Byte](nameLength)
+        val nameBuffer = buffer.duplicate ()
+        nameBuffer.position (position + 25)
+        nameBuffer.get (name)
+        val contentPosition = position + 25 + nameLength + 4
+        val content = buffer.duplicate ()
+        content.position (contentPosition)
+        content.limit (contentPosition + buffer.getInt (position + 25 + nameLength))
+        new ReplayLogEvent (eventType, eventTime, new String (name, "UTF-8"), previousOffset, content.slice ())
+    }
+
+    def close() {
+        log.close ()
+    }
+
+    /**
+     * A change whose class file is a region of the mapped log.
+     * The previous change is only decoded on demand, so that a change does not keep the history of its class alive.
+     */
+    private class ReplayLogEvent(val eventType: ReplayEventType.Value,
+                                 val eventTime: Long,
+                                 val binaryName: String,
+                                 previousOffset: Long,
+                                 content: ByteBuffer)
+        extends ReplayChange
+    {
+        def previousChange: Option[ReplayChange] =
+            if (previousOffset < 0) None else Some (record (previousOffset))
+
+        def openStream(): InputStream = new ByteBufferInputStream (content.duplicate ())
+
+        override def toString = "ReplayLogEvent(" + eventType + "," + eventTime + "," + binaryName + ")"
+    }
+
+    private class ByteBufferInputStream(buffer: ByteBuffer)
+        extends InputStream
+    {
+        def read(): Int =
+            if (buffer.hasRemaining) buffer.get () & 0xff else -1
+
+        override def read(b: Array[Byte], off: Int, len: Int): Int = {
+            if (len == 0)
+                return 0
+            if (!buffer.hasRemaining)
+                return -1
+            val n = math.min (len, buffer.remaining ())
+            buffer.get (b, off, n)
+            n
+        }
+
+        override def available(): Int = buffer.remaining ()
+    }
+}
@@ -0,0 +1,154 @@
+/* License (BSD Style License):
+ * Copyright (c) 2011
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische 
+ *    Universität Darmstadt nor the names of its contributors may be used to 
+ *    endorse or promote products derived from this software without specific 
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package sae.analyses.profiler.util
+
+import java.io.{ByteArrayOutputStream, DataOutputStream, IOException, RandomAccessFile, File}
+import scala.collection.mutable
+
+/**
+ * Appends event sets to the replay log at location; see ReplayLog for the format.
+ * An existing log is continued, i.e., the links to previous records of a class span all appended event sets.
+ */
+class ReplayLogWriter(val location: File)
+{
+    location.mkdirs ()
+
+    private val log = new RandomAccessFile (ReplayLog.logFile (location), "rw")
+
+    private val index = new RandomAccessFile (ReplayLog.indexFile (location), "rw")
+
+    // offset of the last record for each binary name
+    private val previousOffsets = mutable.HashMap[String, Long]()
+
+    private val buffer = new ByteArrayOutputStream ()
+
+    private val record = new DataOutputStream (buffer)
+
+    if (log.length () == 0) {
+        log.writeInt (ReplayLog.Magic)
+        log.writeInt (ReplayLog.Version)
+        index.setLength (0)
+    }
+    else
+    {
+        recover ()
+    }
+
+    /**
+     * Reads the links of all indexed records and cuts off records and index entries of incomplete appends.
+     */
+    private def recover() {
+        if (log.readInt () != ReplayLog.Magic || log.readInt () != ReplayLog.Version)
+            throw new IOException ("not a replay log: " + ReplayLog.logFile (location))
+
+        val entries = index.length () / ReplayLog.IndexEntryBytes
+        var end: Long = ReplayLog.HeaderBytes
+        for (i <- 0L until entries) {
+            index.seek (i * ReplayLog.IndexEntryBytes + 8)
+            var offset = index.readLong ()
+            end = index.readLong ()
+            val count = index.readInt ()
+            for (j <- 0 until count) {
+                log.seek (offset)
+                val length = log.readInt ()
+                log.skipBytes (1 + 8 + 8)
+                val name = new Array[Byte](log.readInt ())
+                log.readFully (name)
+                previousOffsets (new String (name, "UTF-8")) = offset
+                offset += 4 + length
+            }
+        }
+        log.setLength (end)
+        index.setLength (entries * ReplayLog.IndexEntryBytes)
+        log.seek (end)
+        index.seek (index.length ())
+    }
+
+    /**
+     * Appends all events of one event set; the set is visible to readers once this method returns.
+     */
+    def append(eventSet: Seq[ReplayChange]) {
+        if (eventSet.isEmpty)
+            return
+
+        val start = log.getFilePointer
+        eventSet.foreach (appendRecord)
+        val end = log.getFilePointer
+
+        index.writeLong (eventSet.head.eventTime)
+        index.writeLong (start)
+        index.writeLong (end)
+        index.writeInt (eventSet.size)
+    }
+
+    private def appendRecord(event: ReplayChange) {
+        val offset = log.getFilePointer
+        val name = event.binaryName.getBytes ("UTF-8")
+        val content = readContent (event)
+
+        buffer.reset ()
+        record.writeInt (1 + 8 + 8 + 4 + name.length + 4 + content.length)
+        record.writeByte (event.eventType.id)
+        record.writeLong (event.eventTime)
+        record.writeLong (previousOffsets.getOrElse (event.binaryName, -1L))
+        record.writeInt (name.length)
+        record.write (name)
+        record.writeInt (content.length)
+        record.write (content)
+        record.flush ()
+        log.write (buffer.toByteArray)
+
+        previousOffsets (event.binaryName) = offset
+    }
+
+    private def readContent(event: ReplayChange): Array[Byte] = {
+        val stream = event.openStream ()
+        try {
+            val content = new ByteArrayOutputStream ()
+            val chunk = new Array[Byte](8192)
+            var read = stream.read (chunk)
+            while (read >= 0) {
+                content.write (chunk, 0, read)
+                read = stream.read (chunk)
+            }
+            content.toByteArray
+        }
+        finally {
+            stream.close ()
+        }
+    }
+
+    def close() {
+        log.close ()
+        index.close ()
+    }
+}
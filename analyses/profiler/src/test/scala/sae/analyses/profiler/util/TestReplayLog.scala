@@ -0,0 +1,189 @@
+/* License (BSD Style License):
+ * Copyright (c) 2011
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische 
+ *    Universität Darmstadt nor the names of its contributors may be used to 
+ *    endorse or promote products derived from this software without specific 
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package sae.analyses.profiler.util
+
+import java.io.{RandomAccessFile, ByteArrayInputStream, InputStream, File}
+import java.nio.file.Files
+import org.junit.{After, Before, Test}
+import org.junit.Assert._
+
+class TestReplayLog
+{
+
+    case class TestChange(eventType: ReplayEventType.Value, eventTime: Long, binaryName: String, content: String)
+        extends ReplayChange
+    {
+        def previousChange: Option[ReplayChange] = None
+
+        def openStream(): InputStream = new ByteArrayInputStream (content.getBytes ("UTF-8"))
+    }
+
+    var location: File = _
+
+    @Before
+    def createLocation() {
+        location = Files.createTempDirectory ("replay-log").toFile
+    }
+
+    @After
+    def deleteLocation() {
+        Option (location.listFiles ()).foreach (_.foreach (_.delete ()))
+        location.delete ()
+    }
+
+    def contentOf(change: ReplayChange): String = {
+        val stream = change.openStream ()
+        try {
+            scala.io.Source.fromInputStream (stream, "UTF-8").mkString
+        }
+        finally {
+            stream.close ()
+        }
+    }
+
+    def write(eventSets: Seq[ReplayChange]*) {
+        val writer = new ReplayLogWriter (location)
+        try {
+            eventSets.foreach (writer.append)
+        }
+        finally {
+            writer.close ()
+        }
+    }
+
+    def read[T](f: ReplayLogReader => T): T = {
+        val reader = ReplayLog.open (location)
+        try {
+            f (reader)
+        }
+        finally {
+            reader.close ()
+        }
+    }
+
+    val first = Seq (
+        TestChange (ReplayEventType.ADDED, 1, "a/A", "A1"),
+        TestChange (ReplayEventType.ADDED, 1, "a/B", "B1")
+    )
+
+    val second = Seq (
+        TestChange (ReplayEventType.CHANGED, 2, "a/A", "A2"),
+        TestChange (ReplayEventType.REMOVED, 2, "a/B", "")
+    )
+
+    val third = Seq (
+        TestChange (ReplayEventType.CHANGED, 3, "a/A", "A3")
+    )
+
+    @Test
+    def testRoundTrip() {
+        write (first, second)
+
+        assertTrue (ReplayLog.isLog (location))
+        read (log => {
+            assertEquals (2, log.length)
+            assertEquals (2L, log.eventTime (1))
+            for ((expected, actual) <- Seq (first, second).zip (log)) {
+                assertEquals (expected.map (_.binaryName), actual.map (_.binaryName))
+                assertEquals (expected.map (_.eventType), actual.map (_.eventType))
+                assertEquals (expected.map (_.eventTime), actual.map (_.eventTime))
+                assertEquals (expected.map (_.content), actual.map (contentOf))
+            }
+        })
+    }
+
+    @Test
+    def testPreviousLinks() {
+        write (first, second)
+
+        read (log => {
+            assertEquals (None, log (0)(0).previousChange)
+            val previous = log (1)(0).previousChange.get
+            assertEquals ("a/A", previous.binaryName)
+            assertEquals (1L, previous.eventTime)
+            assertEquals ("A1", contentOf (previous))
+            assertEquals ("B1", contentOf (log (1)(1).previousChange.get))
+        })
+    }
+
+    @Test
+    def testReopenAndAppend() {
+        write (first)
+        write (second, third)
+
+        read (log => {
+            assertEquals (3, log.length)
+            val previous = log (2)(0).previousChange.get
+            assertEquals ("A2", contentOf (previous))
+            assertEquals ("A1", contentOf (previous.previousChange.get))
+        })
+    }
+
+    @Test
+    def testRecoveryFromTruncatedIndex() {
+        write (first, second)
+
+        // simulate an append that was interrupted while writing the index entry of the second event set
+        val index = new RandomAccessFile (ReplayLog.indexFile (location), "rw")
+        try {
+            index.setLength (ReplayLog.IndexEntryBytes + ReplayLog.IndexEntryBytes / 2)
+        }
+        finally {
+            index.close ()
+        }
+
+        read (log => assertEquals (1, log.length))
+
+        write (third)
+
+        read (log => {
+            assertEquals (2, log.length)
+            assertEquals (Seq ("A3"), log (1).map (contentOf))
+            // the link skips the records of the lost event set
+            assertEquals ("A1", contentOf (log (1)(0).previousChange.get))
+        })
+        assertEquals (2L * ReplayLog.IndexEntryBytes, ReplayLog.indexFile (location).length ())
+    }
+
+    @Test(expected = classOf[java.io.IOException])
+    def testShortHeader() {
+        write (first)
+        val log = new RandomAccessFile (ReplayLog.logFile (location), "rw")
+        try {
+            log.setLength (ReplayLog.HeaderBytes / 2)
+        }
+        finally {
+            log.close ()
+        }
+        ReplayLog.open (location)
+    }
+}
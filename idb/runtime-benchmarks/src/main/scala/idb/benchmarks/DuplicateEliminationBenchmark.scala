@@ -0,0 +1,83 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.benchmarks
+
+import idb.BagTable
+import idb.operators.impl.DuplicateEliminationView
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations._
+
+/**
+ * Eliminates duplicates from a table that contains each key roughly ten times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+class DuplicateEliminationBenchmark
+{
+    @Param(Array("1000", "10000", "100000"))
+    var size: Int = _
+
+    @Param(Array("0.0", "1.0"))
+    var skew: Double = _
+
+    @Param(Array("0.0", "0.25"))
+    var removeRatio: Double = _
+
+    var workload: Workload = _
+
+    var table: BagTable[(Int, Int)] = _
+
+    var sink: Sink[(Int, Int)] = _
+
+    @Setup(Level.Trial)
+    def generate() {
+        val keys = Workload.zipf (math.max (1, size / 10), skew)
+        workload = Workload (size, removeRatio, 1)((random, i) => (keys (random), 0))
+    }
+
+    @Setup(Level.Invocation)
+    def build() {
+        table = BagTable.empty[(Int, Int)]
+        sink = new Sink (new DuplicateEliminationView (table, isSet = true))
+    }
+
+    @Benchmark
+    def replay(): Long = {
+        workload.replayAll (table)
+        sink.events
+    }
+}
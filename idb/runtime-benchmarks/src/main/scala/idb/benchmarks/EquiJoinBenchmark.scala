@@ -0,0 +1,105 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.benchmarks
+
+import idb.BagTable
+import idb.operators.impl.EquiJoinView
+import idb.operators.impl.opt.TransactionalEquiJoinView
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations._
+
+/**
+ * Joins two tables on the first component of their elements.
+ * Both sides receive their operations interleaved; a single transaction is closed at the end.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+class EquiJoinBenchmark
+{
+    @Param(Array("1000", "10000"))
+    var size: Int = _
+
+    @Param(Array("0.0", "0.5", "1.0"))
+    var skew: Double = _
+
+    @Param(Array("0.0", "0.25"))
+    var removeRatio: Double = _
+
+    @Param(Array("plain", "transactional"))
+    var operator: String = _
+
+    var left: Workload = _
+
+    var right: Workload = _
+
+    var leftTable: BagTable[(Int, Int)] = _
+
+    var rightTable: BagTable[(Int, Int)] = _
+
+    var sink: Sink[((Int, Int), (Int, Int))] = _
+
+    @Setup(Level.Trial)
+    def generate() {
+        left = Workload.keyed (size, size, skew, removeRatio, 1)
+        right = Workload.keyed (size, size, skew, removeRatio, 2)
+    }
+
+    @Setup(Level.Invocation)
+    def build() {
+        leftTable = BagTable.empty[(Int, Int)]
+        rightTable = BagTable.empty[(Int, Int)]
+        val key: ((Int, Int)) => Any = _._1
+        val join = operator match {
+            case "plain" => EquiJoinView (leftTable, rightTable, Seq (key), Seq (key), isSet = false)
+            case "transactional" => TransactionalEquiJoinView (leftTable, rightTable, Seq (key), Seq (key), isSet = false)
+        }
+        sink = new Sink (join)
+    }
+
+    @Benchmark
+    def replay(): Long = {
+        var i = 0
+        while (i < size) {
+            left.replay (i, leftTable)
+            right.replay (i, rightTable)
+            i += 1
+        }
+        leftTable.endTransaction ()
+        rightTable.endTransaction ()
+        sink.events
+    }
+}
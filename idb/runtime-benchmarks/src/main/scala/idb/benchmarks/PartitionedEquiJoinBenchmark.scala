@@ -0,0 +1,108 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.benchmarks
+
+import idb.operators.impl.EquiJoinView
+import idb.partition.{PartitionedTable, PartitionedExecution}
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations._
+
+/**
+ * Joins two tables hash partitioned across a number of workers.
+ * The left table is partitioned on the join key, the right table is repartitioned by an exchange.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+class PartitionedEquiJoinBenchmark
+{
+    @Param(Array("10000", "100000"))
+    var size: Int = _
+
+    @Param(Array("0.0", "1.0"))
+    var skew: Double = _
+
+    @Param(Array("1", "2", "4"))
+    var workers: Int = _
+
+    var left: Workload = _
+
+    var right: Workload = _
+
+    var execution: PartitionedExecution = _
+
+    var leftTable: PartitionedTable[(Int, Int)] = _
+
+    var rightTable: PartitionedTable[(Int, Int)] = _
+
+    var sink: Sink[((Int, Int), (Int, Int))] = _
+
+    @Setup(Level.Trial)
+    def generate() {
+        left = Workload.keyed (size, size / 10, skew, 0.0, 1)
+        right = Workload.keyed (size, size / 10, skew, 0.0, 2)
+    }
+
+    @Setup(Level.Invocation)
+    def build() {
+        execution = new PartitionedExecution (workers)
+        leftTable = execution.table[(Int, Int)](_._1)
+        rightTable = execution.table[(Int, Int)](_._2)
+        val key: ((Int, Int)) => Any = _._1
+        sink = new Sink (execution.query (worker =>
+            EquiJoinView (worker.table (leftTable), worker.exchange (worker.table (rightTable), key), Seq (key), Seq (key), isSet = false)
+        ))
+    }
+
+    @TearDown(Level.Invocation)
+    def shutdown() {
+        execution.shutdown ()
+    }
+
+    @Benchmark
+    def replay(): Long = {
+        val batch = 1000
+        var i = 0
+        while (i < size) {
+            val end = math.min (i + batch, size)
+            leftTable.addAll (left.elements.slice (i, end))
+            rightTable.addAll (right.elements.slice (i, end))
+            i = end
+        }
+        execution.awaitQuiescence ()
+        sink.events
+    }
+}
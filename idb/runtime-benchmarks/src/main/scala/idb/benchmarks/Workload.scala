@@ -0,0 +1,146 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.benchmarks
+
+import idb.Table
+import java.util.Random
+import scala.collection.mutable
+
+/**
+ * A pre-generated sequence of additions and removals of pairs.
+ * A removal always refers to an element that was added earlier and has not been removed since.
+ * Generating the sequence up front keeps the random number generation out of the measured code.
+ */
+class Workload private (val elements: Array[(Int, Int)], val additions: Array[Boolean])
+{
+    def size: Int = elements.length
+
+    def replay (i: Int, table: Table[(Int, Int)]) {
+        if (additions (i))
+            table.add (elements (i))
+        else
+            table.remove (elements (i))
+    }
+
+    def replayAll (table: Table[(Int, Int)]) {
+        var i = 0
+        while (i < elements.length) {
+            replay (i, table)
+            i += 1
+        }
+    }
+}
+
+object Workload
+{
+    /**
+     * Generates size operations, where each operation is a removal with probability removeRatio.
+     * The element function receives the random generator and the index of the operation.
+     * If distinct is set, no element is added twice while it is still contained.
+     */
+    def apply (size: Int, removeRatio: Double, seed: Long, distinct: Boolean = false)
+        (element: (Random, Int) => (Int, Int)): Workload = {
+        val random = new Random (seed)
+        val elements = new Array[(Int, Int)](size)
+        val additions = new Array[Boolean](size)
+        val live = mutable.ArrayBuffer.empty[(Int, Int)]
+        val contained = mutable.HashSet.empty[(Int, Int)]
+
+        var i = 0
+        while (i < size) {
+            if (!live.isEmpty && random.nextDouble () < removeRatio) {
+                val j = random.nextInt (live.size)
+                val e = live (j)
+                live (j) = live (live.size - 1)
+                live.remove (live.size - 1)
+                contained -= e
+                elements (i) = e
+                additions (i) = false
+            }
+            else
+            {
+                var e = element (random, i)
+                var tries = 0
+                while (distinct && contained.contains (e) && tries < 100) {
+                    e = element (random, i)
+                    tries += 1
+                }
+                live += e
+                contained += e
+                elements (i) = e
+                additions (i) = true
+            }
+            i += 1
+        }
+        new Workload (elements, additions)
+    }
+
+    /**
+     * Returns a generator for values in [0, range) that follow a Zipf distribution with the given exponent.
+     * A skew of 0.0 yields uniformly distributed values.
+     */
+    def zipf (range: Int, skew: Double): Random => Int = {
+        if (skew == 0.0)
+            return (random: Random) => random.nextInt (range)
+
+        val cumulative = new Array[Double](range)
+        var sum = 0.0
+        var rank = 0
+        while (rank < range) {
+            sum += 1.0 / math.pow (rank + 1, skew)
+            cumulative (rank) = sum
+            rank += 1
+        }
+
+        (random: Random) => {
+            val i = java.util.Arrays.binarySearch (cumulative, random.nextDouble () * sum)
+            math.min (if (i >= 0) i else -i - 1, range - 1)
+        }
+    }
+
+    /**
+     * Generates (key, id) pairs with Zipf distributed keys; the ids make all pairs unique.
+     */
+    def keyed (size: Int, keyRange: Int, skew: Double, removeRatio: Double, seed: Long): Workload = {
+        val keys = zipf (keyRange, skew)
+        apply (size, removeRatio, seed)((random, i) => (keys (random), i))
+    }
+
+    /**
+     * Generates distinct (tail, head) edges between Zipf distributed vertices.
+     */
+    def edges (size: Int, vertices: Int, skew: Double, removeRatio: Double, seed: Long): Workload = {
+        val vertex = zipf (vertices, skew)
+        apply (size, removeRatio, seed, distinct = true)((random, i) => (vertex (random), vertex (random)))
+    }
+}
@@ -65,10 +65,12 @@ trait RelationalAlgebraGenBasicOperatorsAsIncremental
     override def compile[Domain] (query: Rep[Query[Domain]]): Relation[Domain] = {
         query match {
             case Def (Selection (r, f)) => {
-                new SelectionView (compile (r), compileFunctionWithDynamicManifests (f), false)
+                val (filter, batchFilter) = compileSelectionWithDynamicManifests (f)
+                new SelectionView (compile (r), filter, false, batchFilter)
             }
             case Def (Projection (r, f)) => {
-                new ProjectionView (compile (r), compileFunctionWithDynamicManifests (f), false)
+                val (projection, batchProjection) = compileProjectionWithDynamicManifests (f)
+                new ProjectionView (compile (r), projection, false, batchProjection)
             }
             case Def (e@CrossProduct (a, b)) => {
 				if (e.isIncrementLocal)
@@ -52,6 +52,12 @@ trait RelationalAlgebraGenQueryCache
     def getRelation[Domain] (query: Rep[Query[Domain]]): Relation[Domain] =
         queryCache (query).asInstanceOf[Relation[Domain]]
 
+    /**
+     * Returns the relation compiled for the given query, if the query was compiled
+     */
+    def findRelation (query: Rep[Any]): Option[Relation[Any]] =
+        queryCache.get (query.asInstanceOf[Rep[Query[Any]]])
+
     def resetQueryCache() {
         queryCache = Map.empty
     }
@@ -0,0 +1,82 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.algebra.print
+
+import idb.metrics.Profile
+
+/**
+ * Prints a query plan where each operator is annotated with the runtime metrics of the relation it was compiled to.
+ */
+trait RelationalAlgebraPrintPlanProfiled
+    extends RelationalAlgebraPrintPlan
+{
+
+    import IR.Exp
+
+    /**
+     * Returns the relation the given query was compiled to, if any
+     */
+    def compiledRelation (x: Exp[Any]): Option[idb.Relation[Any]]
+
+    private var profile: Option[Profile] = None
+
+    def quoteWithProfile (x: Exp[Any], p: Profile): String = {
+        profile = Some (p)
+        try {
+            quoteRelation (x)
+        } finally {
+            profile = None
+        }
+    }
+
+    override def quoteRelation (x: Exp[Any]): String = {
+        val plan = super.quoteRelation (x)
+        val annotation =
+            for (p <- profile;
+                 relation <- compiledRelation (x);
+                 metrics <- p.get (relation)
+            ) yield metrics.annotation
+
+        annotation match {
+            case Some (a) => {
+                val endOfFirstLine = plan.indexOf ('\n')
+                if (endOfFirstLine < 0)
+                    plan + " " + a
+                else
+                    plan.substring (0, endOfFirstLine) + " " + a + plan.substring (endOfFirstLine)
+            }
+            case None => plan
+        }
+    }
+
+}
@@ -7,6 +7,7 @@ import java.io.{StringWriter, PrintWriter}
 import scala.reflect.io.{File, VirtualDirectory}
 import scala.tools.nsc.interpreter.AbstractFileClassLoader
 import scala.virtualization.lms.common.{FunctionsExp, BaseExp}
+import idb.operators.impl.batch.{BatchFunction, BatchPredicate}
 
 /**
  *
@@ -56,13 +57,33 @@ trait CompileScalaExt
     }
 
 
-    def compileFunctionWithDynamicManifests[A, B] (f: IR.Rep[A => B]): A => B = {
+    def compileFunctionWithDynamicManifests[A, B] (f: IR.Rep[A => B]): A => B =
+        compileWithDynamicManifests (f, null)._1
+
+    /**
+     * Compiles a selection predicate together with a batch predicate that runs the predicate over chunks.
+     * Elements for which the predicate throws an exception that BatchPredicate.rejects are filtered out, as in SelectionView.
+     */
+    def compileSelectionWithDynamicManifests[A] (f: IR.Rep[A => Boolean]): (A => Boolean, BatchPredicate[A]) = {
+        val (function, batch) = compileWithDynamicManifests (f, batchPredicateSource)
+        (function, batch.asInstanceOf[BatchPredicate[A]])
+    }
+
+    /**
+     * Compiles a projection together with a batch function that runs the projection over chunks.
+     */
+    def compileProjectionWithDynamicManifests[A, B] (f: IR.Rep[A => B]): (A => B, BatchFunction[A, B]) = {
+        val (function, batch) = compileWithDynamicManifests (f, batchFunctionSource)
+        (function, batch.asInstanceOf[BatchFunction[A, B]])
+    }
+
+    private def compileWithDynamicManifests[A, B] (f: IR.Rep[A => B], batchSource: String => String): (A => B, AnyRef) = {
 
         f.tp.typeArguments match {
             case List (mA, mB) => {
                 val mAUnsafe = mA.asInstanceOf[Manifest[A]]
                 val mBUnsafe = mB.asInstanceOf[Manifest[B]]
-                compileFunction (
+                compileFunctionWithBatch (
                     IR.doApply (f, _: IR.Rep[A])(
                         mAUnsafe,
                         mBUnsafe,
@@ -70,22 +91,37 @@ trait CompileScalaExt
                             f.pos (0)
                         else
                             null
-                    )
+                    ),
+                    batchSource
                 )(mAUnsafe, mBUnsafe)
             }
         }
     }
 
-    def compileFunction[A: Manifest, B: Manifest] (f: IR.Rep[A] => IR.Rep[B]): A => B = {
+    def compileFunction[A: Manifest, B: Manifest] (f: IR.Rep[A] => IR.Rep[B]): A => B =
+        compileFunctionWithBatch (f, null)._1
+
+    /**
+     * Compiles f and, if batchSource is not null, the batch operator generated by batchSource in the same compiler run.
+     * batchSource receives the name of the batch class, whose constructor takes the compiled function.
+     * The batch class has its own loop over the chunk, hence the call of f in the loop only ever sees the class of f.
+     */
+    private def compileFunctionWithBatch[A: Manifest, B: Manifest] (
+        f: IR.Rep[A] => IR.Rep[B],
+        batchSource: String => String
+    ): (A => B, AnyRef) = {
         if (this.compiler eq null)
             setupCompiler ()
 
         val className = "staged$" + compileCount
+        val batchClassName = "batch$" + compileCount
         compileCount += 1
 
         val source = new StringWriter ()
         val staticData = emitSource (f, className, new PrintWriter (source))
         // IR.reset
+        if (batchSource != null)
+            source.write (batchSource (batchClassName))
 
         if (dumpGeneratedCode) println (source)
 
@@ -114,7 +150,54 @@ trait CompileScalaExt
         val cons = cls.getConstructor (staticData.map (_._1.tp.runtimeClass): _*)
 
         val obj: A => B = cons.newInstance (staticData.map (_._2.asInstanceOf[AnyRef]): _*).asInstanceOf[A => B]
-        obj
+
+        if (batchSource == null)
+            return (obj, null)
+
+        val batchCls: Class[_] = loader.loadClass (batchClassName)
+        val batch = batchCls.getConstructor (classOf[Function1[_, _]]).newInstance (obj).asInstanceOf[AnyRef]
+        (obj, batch)
     }
 
+    private val batchPredicateSource: String => String = className => s"""
+class $className (f: Any => Boolean) extends idb.operators.impl.batch.BatchPredicate[Any] {
+  def select (chunk: idb.operators.impl.batch.Chunk[Any]): idb.operators.impl.batch.Chunk[Any] = {
+    val length = chunk.length
+    val selection = new Array[Int](length)
+    var selected = 0
+    var i = 0
+    while (i < length) {
+      val row = chunk.row (i)
+      val passes =
+        try {
+          f (chunk.element (row))
+        } catch {
+          case e: RuntimeException if idb.operators.impl.batch.BatchPredicate.rejects (e) => false
+        }
+      if (passes) {
+        selection (selected) = row
+        selected += 1
+      }
+      i += 1
+    }
+    chunk.select (selection, selected)
+  }
+}
+"""
+
+    private val batchFunctionSource: String => String = className => s"""
+class $className (f: Any => Any) extends idb.operators.impl.batch.BatchFunction[Any, Any] {
+  def map (chunk: idb.operators.impl.batch.Chunk[Any]): idb.operators.impl.batch.Chunk[Any] = {
+    val length = chunk.length
+    val results = new Array[Any](length)
+    var i = 0
+    while (i < length) {
+      results (i) = f (chunk.element (chunk.row (i)))
+      i += 1
+    }
+    idb.operators.impl.batch.Chunk.dense (results, length)
+  }
+}
+"""
+
 }
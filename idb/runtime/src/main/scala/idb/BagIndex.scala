@@ -1,5 +1,7 @@
 package idb
 
+import idb.metrics.MemoryFootprint
+
 /**
  * An index backed by a guava ListMultimap.
  * The index may have multiple values for a single key.
@@ -56,6 +58,10 @@ class BagIndex[K, V](val relation: Relation[V],
 
 	def contains(key: K): Boolean = map.containsKey (key)
 
+	def retainedEntries: Long = map.size ()
+
+	def estimatedBytes: Long = MemoryFootprint.listMultimapEntries (map.keySet ().size (), map.size ())
+
 
 	def count(key: K) =
 		if (map.containsKey (key))
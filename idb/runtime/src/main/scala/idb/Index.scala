@@ -33,6 +33,7 @@
 package idb
 
 import idb.observer.{NotifyObservers, Observer, Observable}
+import idb.metrics.MemoryFootprint
 
 
 /**
@@ -58,7 +59,8 @@ import idb.observer.{NotifyObservers, Observer, Observable}
 trait Index[K, V]
   extends View[(K, V)]
   with Observer[V]
-  with NotifyObservers[(K, V)] {
+  with NotifyObservers[(K, V)]
+  with MemoryFootprint {
 
   def relation: Relation[V]
 
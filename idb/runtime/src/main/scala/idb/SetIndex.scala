@@ -1,5 +1,7 @@
 package idb
 
+import idb.metrics.MemoryFootprint
+
 class SetIndex[K, V](val relation: Relation[V],
 					 val keyFunction: V => K)
 	extends Index[K, V]
@@ -70,6 +72,10 @@ class SetIndex[K, V](val relation: Relation[V],
 
 	override def size = map.values ().size ()
 
+	def retainedEntries: Long = map.size ()
+
+	def estimatedBytes: Long = MemoryFootprint.listMultimapEntries (map.keySet ().size (), map.size ())
+
 	def add_element(k: K, v: V)
 	{
 		map.put (k, v)
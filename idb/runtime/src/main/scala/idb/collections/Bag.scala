@@ -1,5 +1,7 @@
 package idb.collections
 
+import idb.metrics.MemoryFootprint
+
 /**
  * A relation backed by a multi set for efficient access to elements.
  * Each element may have multiple occurrences in this relation.
@@ -41,6 +43,10 @@ trait Bag[V]
     data.size()
   }
 
+  def retainedEntries: Long = data.entrySet().size()
+
+  def estimatedBytes: Long = MemoryFootprint.multisetEntries(retainedEntries)
+
   def add_element(v: V) {
     data.add(v)
     notify_added(v)
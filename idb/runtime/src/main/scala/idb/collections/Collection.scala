@@ -2,10 +2,12 @@ package idb.collections
 
 import idb.MaterializedView
 import idb.observer.NotifyObservers
+import idb.metrics.MemoryFootprint
 
 trait Collection[V]
   extends MaterializedView[V]
-  with NotifyObservers[V] {
+  with NotifyObservers[V]
+  with MemoryFootprint {
 
   /**
    * Add a data tuple to this relation.
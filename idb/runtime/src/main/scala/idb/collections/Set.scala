@@ -1,5 +1,7 @@
 package idb.collections
 
+import idb.metrics.MemoryFootprint
+
 /**
  * A relation that is guaranteed to hold each element only once
  */
@@ -14,6 +16,10 @@ trait Set[V]
 
   def size: Int = data.size
 
+  def retainedEntries: Long = data.size
+
+  def estimatedBytes: Long = MemoryFootprint.hashEntries(retainedEntries)
+
   def add_element(v: V) {
     if (data.add(v))
       notify_added(v)
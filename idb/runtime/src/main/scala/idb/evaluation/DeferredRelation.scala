@@ -0,0 +1,181 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.evaluation
+
+import idb.Relation
+import idb.observer.{NotifyObservers, Observable, Observer}
+import scala.collection.mutable
+
+/**
+ * Sits between a base relation and the operators of a query.
+ * In eager mode all events are passed along.
+ * In deferred mode events are reduced to a net change per element and passed along as one batch of removals
+ * followed by one batch of additions when the policy flushes.
+ * Updates are hence propagated as a removal and an addition.
+ */
+class DeferredRelation[V] (val relation: Relation[V], val policy: EvaluationPolicy)
+    extends Relation[V]
+    with Observer[V]
+    with NotifyObservers[V]
+{
+    relation addObserver this
+
+    private val pending = mutable.LinkedHashMap[V, Int]()
+
+    private var pendingTransaction = false
+
+    def isSet: Boolean = relation.isSet
+
+    protected def lazyInitialize () {
+        /* do nothing */
+    }
+
+    override protected def children = List (relation)
+
+    override protected def childObservers (o: Observable[_]): Seq[Observer[_]] = {
+        if (o == relation) {
+            return List (this)
+        }
+        Nil
+    }
+
+    def pendingEvents: Int = pending.values.map (math.abs).sum
+
+    /**
+     * Applies f to the elements as seen by the operators of the query, i.e., without pending changes.
+     * The pending changes are subtracted from the elements of the relation, hence this is only supported for
+     * relations that store their elements. Over a relation that stores nothing, e.g., a Table, only the pending
+     * removals are yielded. It does not flush instead, since operators call foreach while they initialize and
+     * would receive the flushed changes a second time.
+     */
+    def foreach[T] (f: (V) => T) {
+        if (pending.isEmpty) {
+            relation.foreach (f)
+            return
+        }
+
+        val added = mutable.HashMap[V, Int]()
+        for ((v, n) <- pending if n > 0)
+            added (v) = n
+        relation.foreach ((v: V) =>
+            added.get (v) match {
+                case Some (1) => added -= v
+                case Some (n) => added (v) = n - 1
+                case None => f (v)
+            }
+        )
+        for ((v, n) <- pending if n < 0; i <- 1 to -n)
+            f (v)
+    }
+
+    private def buffer (v: V, delta: Int) {
+        val n = pending.getOrElse (v, 0) + delta
+        if (n == 0)
+            pending -= v
+        else
+            pending (v) = n
+    }
+
+    def flush () {
+        if (pending.isEmpty && !pendingTransaction)
+            return
+
+        val removals = mutable.ArrayBuffer[V]()
+        val additions = mutable.ArrayBuffer[V]()
+        for ((v, n) <- pending) {
+            if (n < 0)
+                for (i <- 1 to -n) removals += v
+            else
+                for (i <- 1 to n) additions += v
+        }
+        val transaction = pendingTransaction
+        pending.clear ()
+        pendingTransaction = false
+
+        if (removals.nonEmpty)
+            notify_removedAll (removals)
+        if (additions.nonEmpty)
+            notify_addedAll (additions)
+        if (transaction)
+            notify_endTransaction ()
+    }
+
+    def updated (oldV: V, newV: V) {
+        policy.recordWrite (1)
+        if (policy.isDeferred) {
+            buffer (oldV, -1)
+            buffer (newV, 1)
+        }
+        else
+            notify_updated (oldV, newV)
+    }
+
+    def removed (v: V) {
+        policy.recordWrite (1)
+        if (policy.isDeferred)
+            buffer (v, -1)
+        else
+            notify_removed (v)
+    }
+
+    def removedAll (vs: Seq[V]) {
+        policy.recordWrite (vs.size)
+        if (policy.isDeferred)
+            vs.foreach (buffer (_, -1))
+        else
+            notify_removedAll (vs)
+    }
+
+    def added (v: V) {
+        policy.recordWrite (1)
+        if (policy.isDeferred)
+            buffer (v, 1)
+        else
+            notify_added (v)
+    }
+
+    def addedAll (vs: Seq[V]) {
+        policy.recordWrite (vs.size)
+        if (policy.isDeferred)
+            vs.foreach (buffer (_, 1))
+        else
+            notify_addedAll (vs)
+    }
+
+    def endTransaction () {
+        if (policy.isDeferred)
+            pendingTransaction = true
+        else
+            notify_endTransaction ()
+    }
+}
@@ -0,0 +1,89 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.evaluation
+
+import idb.MaterializedView
+import idb.observer.{Observable, Observer}
+
+/**
+ * The results of a query under an evaluation policy.
+ * Every read propagates the pending changes of the policy before it is answered by the materialized results.
+ * Observers are registered at the materialized results and hence are notified when the changes are propagated.
+ */
+class DemandDrivenView[V] (val view: MaterializedView[V], val policy: EvaluationPolicy)
+    extends MaterializedView[V]
+{
+
+    def isSet: Boolean = view.isSet
+
+    protected def lazyInitialize () {
+        /* do nothing */
+    }
+
+    override protected def children = List (view)
+
+    override def addObserver[U >: V] (o: Observer[U]) {
+        view.addObserver (o)
+    }
+
+    override def removeObserver[U >: V] (o: Observer[U]) {
+        view.removeObserver (o)
+    }
+
+    override def hasObservers = view.hasObservers
+
+    def foreach[T] (f: (V) => T) {
+        policy.recordRead ()
+        view.foreach (f)
+    }
+
+    def foreachWithCount[T] (f: (V, Int) => T) {
+        policy.recordRead ()
+        view.foreachWithCount (f)
+    }
+
+    def contains[U >: V] (element: U): Boolean = {
+        policy.recordRead ()
+        view.contains (element)
+    }
+
+    def count[U >: V] (element: U): Int = {
+        policy.recordRead ()
+        view.count (element)
+    }
+
+    def size: Int = {
+        policy.recordRead ()
+        view.size
+    }
+}
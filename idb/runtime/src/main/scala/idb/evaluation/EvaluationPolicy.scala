@@ -0,0 +1,137 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.evaluation
+
+import idb.{MaterializedView, Relation}
+import scala.collection.mutable
+
+/**
+ * A per-query evaluation policy.
+ * The base relations of a query are wrapped via defer and the results of the query are read via view.
+ * In deferred mode the wrapped base relations buffer all changes and the results are brought up to date
+ * the first time they are read after a change.
+ *
+ * In adaptive mode the policy counts changes and reads. After every window of events the policy
+ * switches to deferred evaluation if there were at least deferThreshold changes per read and
+ * back to eager evaluation if there were at most eagerThreshold changes per read.
+ */
+class EvaluationPolicy (
+    val mode: EvaluationMode,
+    val window: Int = 256,
+    val deferThreshold: Double = 4.0,
+    val eagerThreshold: Double = 1.0
+)
+{
+
+    private val gates = mutable.LinkedHashMap[Relation[_], DeferredRelation[_]]()
+
+    private var deferred: Boolean = mode == EvaluationMode.Deferred
+
+    private var windowReads: Long = 0
+
+    private var windowWrites: Long = 0
+
+    var reads: Long = 0
+
+    var writes: Long = 0
+
+    var switches: Int = 0
+
+    def isDeferred: Boolean = deferred
+
+    /**
+     * Returns the relation the query must be built on instead of the given base relation.
+     * Wrapping the same relation twice yields the same wrapper.
+     */
+    def defer[V] (relation: Relation[V]): Relation[V] =
+        gates.getOrElseUpdate (relation, new DeferredRelation[V](relation, this)).asInstanceOf[Relation[V]]
+
+    /**
+     * Returns the results of a query built on deferred relations.
+     * Every read of the returned view first propagates the pending changes.
+     */
+    def view[V] (query: Relation[V]): MaterializedView[V] =
+        new DemandDrivenView[V](query.asMaterialized, this)
+
+    /**
+     * Propagates all pending changes through the query.
+     */
+    def flush () {
+        gates.values.foreach (_.flush ())
+    }
+
+    def pendingEvents: Int = gates.values.map (_.pendingEvents).sum
+
+    protected[evaluation] def recordWrite (events: Int) {
+        writes += events
+        windowWrites += events
+        adapt ()
+    }
+
+    protected[evaluation] def recordRead () {
+        reads += 1
+        windowReads += 1
+        flush ()
+        adapt ()
+    }
+
+    private def adapt () {
+        if (mode != EvaluationMode.Adaptive || windowReads + windowWrites < window)
+            return
+
+        val changesPerRead = windowWrites.toDouble / math.max (windowReads, 1)
+        if (!deferred && changesPerRead >= deferThreshold) {
+            deferred = true
+            switches += 1
+        }
+        else if (deferred && changesPerRead <= eagerThreshold) {
+            flush ()
+            deferred = false
+            switches += 1
+        }
+        windowReads = 0
+        windowWrites = 0
+    }
+
+}
+
+object EvaluationPolicy
+{
+
+    def eager = new EvaluationPolicy (EvaluationMode.Eager)
+
+    def deferred = new EvaluationPolicy (EvaluationMode.Deferred)
+
+    def adaptive = new EvaluationPolicy (EvaluationMode.Adaptive)
+
+}
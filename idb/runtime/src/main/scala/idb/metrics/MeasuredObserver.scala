@@ -0,0 +1,153 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.metrics
+
+import idb.observer.Observer
+
+/**
+ * Wraps an observer of an operator and records the events it receives and the time spent processing them.
+ * The time spent in nested measured observers, i.e., downstream operators, is subtracted.
+ */
+class MeasuredObserver (val metrics: OperatorMetrics, val delegate: Observer[Any])
+    extends Observer[Any]
+{
+
+    import MeasuredObserver.nested
+
+    private def finish (clock: Array[Long], outer: Long, start: Long) {
+        val elapsed = System.nanoTime - start
+        metrics.recordTime (elapsed - clock (0))
+        clock (0) = outer + elapsed
+    }
+
+    def updated (oldV: Any, newV: Any) {
+        metrics.recordIn (1)
+        val clock = nested.get ()
+        val outer = clock (0)
+        clock (0) = 0
+        val start = System.nanoTime
+        delegate.updated (oldV, newV)
+        finish (clock, outer, start)
+    }
+
+    def removed (v: Any) {
+        metrics.recordIn (1)
+        val clock = nested.get ()
+        val outer = clock (0)
+        clock (0) = 0
+        val start = System.nanoTime
+        delegate.removed (v)
+        finish (clock, outer, start)
+    }
+
+    def removedAll (vs: Seq[Any]) {
+        metrics.recordBatchIn (vs.size)
+        val clock = nested.get ()
+        val outer = clock (0)
+        clock (0) = 0
+        val start = System.nanoTime
+        delegate.removedAll (vs)
+        finish (clock, outer, start)
+    }
+
+    def added (v: Any) {
+        metrics.recordIn (1)
+        val clock = nested.get ()
+        val outer = clock (0)
+        clock (0) = 0
+        val start = System.nanoTime
+        delegate.added (v)
+        finish (clock, outer, start)
+    }
+
+    def addedAll (vs: Seq[Any]) {
+        metrics.recordBatchIn (vs.size)
+        val clock = nested.get ()
+        val outer = clock (0)
+        clock (0) = 0
+        val start = System.nanoTime
+        delegate.addedAll (vs)
+        finish (clock, outer, start)
+    }
+
+    def endTransaction () {
+        metrics.recordTransaction ()
+        val clock = nested.get ()
+        val outer = clock (0)
+        clock (0) = 0
+        val start = System.nanoTime
+        delegate.endTransaction ()
+        finish (clock, outer, start)
+    }
+}
+
+object MeasuredObserver
+{
+    /**
+     * The time spent in nested measured observers, kept per thread.
+     * The only element is the time accumulated by the observers called from the currently measured observer.
+     */
+    private val nested = new ThreadLocal[Array[Long]]
+    {
+        override def initialValue () = new Array[Long](1)
+    }
+}
+
+/**
+ * Records the events an operator propagates to its observers.
+ */
+class OutputCounter (val metrics: OperatorMetrics)
+    extends Observer[Any]
+{
+    def updated (oldV: Any, newV: Any) {
+        metrics.recordOut (1)
+    }
+
+    def removed (v: Any) {
+        metrics.recordOut (1)
+    }
+
+    def removedAll (vs: Seq[Any]) {
+        metrics.recordBatchOut (vs.size)
+    }
+
+    def added (v: Any) {
+        metrics.recordOut (1)
+    }
+
+    def addedAll (vs: Seq[Any]) {
+        metrics.recordBatchOut (vs.size)
+    }
+
+    def endTransaction () {}
+}
@@ -0,0 +1,95 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.metrics
+
+/**
+ * Operators that retain data report the amount of data they retain.
+ *
+ * The byte size is an estimate of the data structures of the operator, assuming a 64 bit JVM with compressed
+ * references.
+ * The elements themselves are not counted, since they are shared between the operators of a query.
+ */
+trait MemoryFootprint
+{
+    /**
+     * The number of entries physically stored by the operator, e.g., distinct elements of a bag, or groups of an
+     * aggregation.
+     */
+    def retainedEntries: Long
+
+    /**
+     * An estimate of the bytes retained by the data structures of the operator.
+     */
+    def estimatedBytes: Long
+}
+
+object MemoryFootprint
+{
+    val ReferenceBytes = 4L
+
+    /**
+     * An entry of a hash map or hash set, including its share of the table at the default load factor
+     */
+    val HashEntryBytes = 40L
+
+    /**
+     * An empty nested collection, e.g., the value list of a multimap or a set of descendants
+     */
+    val CollectionBytes = 64L
+
+    /**
+     * The count of an element in a guava multiset
+     */
+    val CountBytes = 16L
+
+    /**
+     * A small object, e.g., a tuple or an aggregate function
+     */
+    val ObjectBytes = 24L
+
+    def hashEntries (entries: Long): Long = entries * HashEntryBytes
+
+    def multisetEntries (distinctElements: Long): Long = distinctElements * (HashEntryBytes + CountBytes)
+
+    /**
+     * Multimaps where the values of a key are stored in a list
+     */
+    def listMultimapEntries (keys: Long, values: Long): Long =
+        keys * (HashEntryBytes + CollectionBytes) + values * ReferenceBytes
+
+    /**
+     * Multimaps where the values of a key are stored in a hash set
+     */
+    def setMultimapEntries (keys: Long, values: Long): Long =
+        keys * (HashEntryBytes + CollectionBytes) + values * HashEntryBytes
+}
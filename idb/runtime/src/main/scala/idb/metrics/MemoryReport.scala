@@ -0,0 +1,78 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.metrics
+
+import idb.Relation
+import idb.observer.Observable
+
+/**
+ * The memory retained by the operators reachable from a set of root relations.
+ * Operators shared between the roots are only counted once.
+ */
+class MemoryReport private (val operators: Seq[(Observable[_], MemoryFootprint)])
+{
+
+    def totalEntries: Long = operators.foldLeft (0L)(_ + _._2.retainedEntries)
+
+    def totalBytes: Long = operators.foldLeft (0L)(_ + _._2.estimatedBytes)
+
+    def toCSV: String = {
+        val builder = new StringBuilder
+        builder.append ("operator;retainedEntries;estimatedBytes\n")
+        for ((operator, footprint) <- operators) {
+            builder.append (Profile.nameOf (operator)).append (";")
+                .append (footprint.retainedEntries).append (";")
+                .append (footprint.estimatedBytes).append ("\n")
+        }
+        builder.toString ()
+    }
+
+    override def toString =
+        operators.map {
+            case (operator, footprint) =>
+                Profile.nameOf (operator) + ": " + footprint.retainedEntries + " entries, " +
+                    footprint.estimatedBytes + " bytes"
+        }.mkString ("\n")
+}
+
+object MemoryReport
+{
+    def apply (roots: Relation[_]*): MemoryReport = {
+        val operators = roots.flatMap (Profile.operatorGraph).distinct
+        new MemoryReport (
+            operators.collect {
+                case footprint: MemoryFootprint => (footprint.asInstanceOf[Observable[_]], footprint)
+            }
+        )
+    }
+}
@@ -0,0 +1,175 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.metrics
+
+import idb.observer.Observable
+
+/**
+ * Runtime measurements for a single operator of an instrumented query.
+ * Events in and time are recorded by the observers the operator registered at its sources,
+ * events out are recorded by a counting observer registered at the operator itself.
+ *
+ * Times are exclusive, i.e., the time spent in instrumented downstream operators is not
+ * counted towards this operator.
+ * Percentiles are approximated by a histogram with buckets of powers of two nanoseconds.
+ *
+ * Recording is synchronized, since the operators of a partitioned plan that are shared by all workers,
+ * e.g., a PartitionedResult, receive events from several threads. Read the counters once the query is quiescent.
+ */
+class OperatorMetrics (val operator: Observable[_])
+{
+
+    val name: String = Profile.nameOf (operator)
+
+    var eventsIn: Long = 0
+
+    var batchesIn: Long = 0
+
+    var maxBatchIn: Int = 0
+
+    var eventsOut: Long = 0
+
+    var batchesOut: Long = 0
+
+    var maxBatchOut: Int = 0
+
+    var transactions: Long = 0
+
+    var totalTime: Long = 0
+
+    private val histogram = new Array[Long](64)
+
+    private var samples: Long = 0
+
+
+    def recordIn (events: Int) {
+        synchronized {
+            eventsIn += events
+        }
+    }
+
+    /**
+     * Records a call of addedAll or removedAll, which counts as one batch regardless of its size.
+     */
+    def recordBatchIn (events: Int) {
+        synchronized {
+            eventsIn += events
+            batchesIn += 1
+            if (events > maxBatchIn)
+                maxBatchIn = events
+        }
+    }
+
+    def recordOut (events: Int) {
+        synchronized {
+            eventsOut += events
+        }
+    }
+
+    def recordBatchOut (events: Int) {
+        synchronized {
+            eventsOut += events
+            batchesOut += 1
+            if (events > maxBatchOut)
+                maxBatchOut = events
+        }
+    }
+
+    def recordTransaction () {
+        synchronized {
+            transactions += 1
+        }
+    }
+
+    def recordTime (nanos: Long) {
+        synchronized {
+            val t = if (nanos < 0) 0 else nanos
+            totalTime += t
+            histogram (63 - java.lang.Long.numberOfLeadingZeros (t | 1)) += 1
+            samples += 1
+        }
+    }
+
+    /**
+     * Returns an upper bound of the time in nanoseconds below which the given fraction of the recorded events lies.
+     */
+    def percentile (p: Double): Long = synchronized {
+        if (samples == 0)
+            return 0
+        val threshold = math.ceil (samples * p).toLong
+        var seen = 0L
+        var i = 0
+        while (i < histogram.length) {
+            seen += histogram (i)
+            if (seen >= threshold)
+                return (1L << (i + 1)) - 1
+            i += 1
+        }
+        Long.MaxValue
+    }
+
+    /**
+     * The number of entries the operator retains, or -1 if the operator stores no state.
+     * This can be a costly operation, since it may require iterating over the operator's data.
+     */
+    def stateSize: Long =
+        operator match {
+            case footprint: MemoryFootprint => footprint.retainedEntries
+            case _ => -1
+        }
+
+    def reset () {
+        synchronized {
+            eventsIn = 0
+            batchesIn = 0
+            maxBatchIn = 0
+            eventsOut = 0
+            batchesOut = 0
+            maxBatchOut = 0
+            transactions = 0
+            totalTime = 0
+            java.util.Arrays.fill (histogram, 0L)
+            samples = 0
+        }
+    }
+
+    /**
+     * A short summary used to annotate printed query plans
+     */
+    def annotation: String =
+        "[in=" + eventsIn + " out=" + eventsOut + " time=" + (totalTime / 1000000.0) + "ms" +
+            " p50=" + percentile (0.5) + "ns p99=" + percentile (0.99) + "ns" +
+            (if (stateSize >= 0) " state=" + stateSize else "") + "]"
+
+    override def toString = name + annotation
+}
@@ -0,0 +1,183 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.metrics
+
+import idb.{Index, Relation}
+import idb.observer.{Observer, Observable}
+import scala.collection.mutable
+
+/**
+ * An opt-in instrumentation of the operator graph reachable from a root relation.
+ * Instrumenting replaces the observers of all operators in the graph by measured observers.
+ * Hence, operators that are not instrumented pay no overhead at all.
+ *
+ * The profile must be removed via uninstrument before observers are removed from the instrumented operators.
+ */
+class Profile private (val root: Relation[_], val operators: Seq[OperatorMetrics])
+{
+
+    private val byOperator: Map[Observable[_], OperatorMetrics] = operators.map (m => (m.operator, m)).toMap
+
+    private var instrumentedEdges: List[(Observable[_], Observer[Any], Observer[Any])] = Nil
+
+    def get (operator: Observable[_]): Option[OperatorMetrics] = byOperator.get (operator)
+
+    def apply (operator: Observable[_]): OperatorMetrics = byOperator (operator)
+
+    private def replace (source: Observable[_], original: Observer[Any], replacement: Observer[Any]) {
+        source.removeObserver (original)
+        source.addObserver (replacement)
+        instrumentedEdges = (source, original, replacement) :: instrumentedEdges
+    }
+
+    private def register (source: Observable[_], observer: Observer[Any]) {
+        source.addObserver (observer)
+        instrumentedEdges = (source, null, observer) :: instrumentedEdges
+    }
+
+    /**
+     * Restores the original observers of all instrumented operators.
+     */
+    def uninstrument () {
+        for ((source, original, replacement) <- instrumentedEdges) {
+            source.removeObserver (replacement)
+            if (original != null)
+                source.addObserver (original)
+        }
+        instrumentedEdges = Nil
+    }
+
+    def reset () {
+        operators.foreach (_.reset ())
+    }
+
+    def toCSV: String = {
+        val builder = new StringBuilder
+        builder.append (Profile.columns.mkString (";")).append ("\n")
+        for (m <- operators) {
+            builder.append (Profile.values (m).mkString (";")).append ("\n")
+        }
+        builder.toString ()
+    }
+
+    def toJSON: String = {
+        operators.map (m =>
+            Profile.columns.zip (Profile.values (m)).map {
+                case ("operator", v) => "\"operator\": " + Profile.quote (v.toString)
+                case (c, v) => "\"" + c + "\": " + v
+            }.mkString ("{", ", ", "}")
+        ).mkString ("[\n  ", ",\n  ", "\n]")
+    }
+
+    override def toString = operators.mkString ("\n")
+}
+
+object Profile
+{
+
+    def nameOf (operator: Observable[_]): String = {
+        val simpleName = operator.getClass.getSimpleName
+        // anonymous classes have no simple name
+        val className = if (simpleName.isEmpty) operator.getClass.getName else simpleName
+        className + "@" + Integer.toHexString (System.identityHashCode (operator))
+    }
+
+    /**
+     * Returns s as JSON string literal.
+     */
+    private[metrics] def quote (s: String): String = {
+        val builder = new StringBuilder ("\"")
+        for (c <- s) {
+            c match {
+                case '"' => builder.append ("\\\"")
+                case '\\' => builder.append ("\\\\")
+                case '\n' => builder.append ("\\n")
+                case '\r' => builder.append ("\\r")
+                case '\t' => builder.append ("\\t")
+                case _ if c < ' ' => builder.append ("\\u%04x".format (c.toInt))
+                case _ => builder.append (c)
+            }
+        }
+        builder.append ('"').toString ()
+    }
+
+    private val columns = Seq ("operator", "eventsIn", "batchesIn", "maxBatchIn", "eventsOut", "batchesOut",
+        "maxBatchOut", "transactions", "totalTimeNs", "p50Ns", "p90Ns", "p99Ns", "stateSize")
+
+    private def values (m: OperatorMetrics): Seq[Any] =
+        Seq (m.name, m.eventsIn, m.batchesIn, m.maxBatchIn, m.eventsOut, m.batchesOut, m.maxBatchOut, m.transactions,
+            m.totalTime, m.percentile (0.5), m.percentile (0.9), m.percentile (0.99), m.stateSize)
+
+    /**
+     * Returns all operators of the graph below root, including the indices used by joins.
+     * Indices are not children of the joins, but observe the children of the joins.
+     */
+    def operatorGraph (root: Relation[_]): Seq[Observable[_]] = {
+        val nodes = mutable.LinkedHashSet[Observable[_]](root)
+        root.descendants.foreach (nodes += _)
+
+        var frontier: Seq[Observable[_]] = nodes.toSeq
+        while (!frontier.isEmpty) {
+            val indices =
+                (for (node <- frontier; observer <- node.observers.toSeq) yield observer).collect {
+                    case index: Index[_, _] if !nodes.contains (index) && nodes.exists (!_.observersOf (index).isEmpty) =>
+                        index
+                }.distinct
+            nodes ++= indices
+            frontier = indices
+        }
+        nodes.toSeq
+    }
+
+    /**
+     * Instruments all operators reachable from root.
+     */
+    def instrument (root: Relation[_]): Profile = {
+        val nodes = operatorGraph (root)
+        val profile = new Profile (root, nodes.map (new OperatorMetrics (_)))
+
+        for (source <- nodes) {
+            for (observer <- source.observers.toList) {
+                val owner: Option[Observable[_]] = observer match {
+                    case o: Observable[_] if profile.byOperator.contains (o) => Some (o)
+                    case _ => nodes.find (_.observersOf (source).contains (observer))
+                }
+                for (o <- owner) {
+                    profile.replace (source, observer, new MeasuredObserver (profile (o), observer))
+                }
+            }
+            profile.register (source, new OutputCounter (profile (source)))
+        }
+        profile
+    }
+}
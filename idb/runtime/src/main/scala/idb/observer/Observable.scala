@@ -47,7 +47,7 @@ import collection.mutable
 trait Observable[+V]
 {
 
-    protected[observer] var observers: mutable.HashSet[Observer[Any]] = mutable.HashSet.empty
+    protected[idb] var observers: mutable.HashSet[Observer[Any]] = mutable.HashSet.empty
 
     def addObserver[U >: V] (o: Observer[U]) {
         // sanity check that the assumption of never adding the same observer twice holds
@@ -100,6 +100,12 @@ trait Observable[+V]
      */
     protected def childObservers (o: Observable[_]): Seq[Observer[_]] = Nil
 
+    /**
+     * Returns the observers this observable has registered at the given child.
+     * Allows the instrumentation in idb.metrics to attribute inner observer objects to their operator.
+     */
+    protected[idb] def observersOf (o: Observable[_]): Seq[Observer[_]] = childObservers (o)
+
     // Notify methods to notify the observers //
 
 }
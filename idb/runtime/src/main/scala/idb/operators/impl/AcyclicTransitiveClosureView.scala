@@ -40,6 +40,7 @@ import idb.operators.TransitiveClosure
 import idb.observer.{Observable, NotifyObservers, Observer}
 import idb.MaterializedView
 import idb.Relation
+import idb.metrics.MemoryFootprint
 
 
 /**
@@ -64,6 +65,7 @@ class AcyclicTransitiveClosureView[Edge, Vertex](val source: Relation[Edge],
     with Observer[Edge]
 	with NotifyObservers[(Vertex,Vertex)]
 	with MaterializedView[(Vertex,Vertex)]
+    with MemoryFootprint
 {
     source addObserver this
 
@@ -83,6 +85,16 @@ class AcyclicTransitiveClosureView[Edge, Vertex](val source: Relation[Edge],
     // (u,v)(w, v)
     // (v, x)
 
+    private def adjacentVertices: Long =
+        transitiveClosure.values.foldLeft (0L)((sum, paths) => sum + paths.descendants.size + paths.ancestors.size)
+
+    def retainedEntries: Long = transitiveClosure.size + adjacentVertices
+
+    // each vertex stores a paths object with two sets
+    def estimatedBytes: Long =
+        transitiveClosure.size * (MemoryFootprint.HashEntryBytes + MemoryFootprint.ObjectBytes + 2 * MemoryFootprint.CollectionBytes) +
+            MemoryFootprint.hashEntries (adjacentVertices)
+
     lazyInitialize ()
 
     /**
@@ -37,6 +37,7 @@ import scala.collection.JavaConversions._
 import idb.Relation
 import idb.operators.TransitiveClosure
 import idb.observer.{Observable, NotifyObservers, Observer}
+import idb.metrics.MemoryFootprint
 
 /**
  * Algorithm for:
@@ -57,6 +58,7 @@ class AcyclicTransitiveClosureViewJava[Edge, Vertex](val source: Relation[Edge],
     extends TransitiveClosure[Edge, Vertex]
     with Observer[Edge]
 	with NotifyObservers[(Vertex,Vertex)]
+    with MemoryFootprint
 {
     source addObserver this
 
@@ -76,6 +78,16 @@ class AcyclicTransitiveClosureViewJava[Edge, Vertex](val source: Relation[Edge],
     // (u,v)(w, v)
     // (v, x)
 
+    private def adjacentVertices: Long =
+        transitiveClosure.values ().foldLeft (0L)((sum, paths) => sum + paths.descendants.size () + paths.ancestors.size ())
+
+    def retainedEntries: Long = transitiveClosure.size () + adjacentVertices
+
+    // each vertex stores a paths object with two sets
+    def estimatedBytes: Long =
+        transitiveClosure.size () * (MemoryFootprint.HashEntryBytes + MemoryFootprint.ObjectBytes + 2 * MemoryFootprint.CollectionBytes) +
+            MemoryFootprint.hashEntries (adjacentVertices)
+
     lazyInitialize ()
 
     override protected def childObservers(o: Observable[_]): Seq[Observer[_]] = {
@@ -4,6 +4,7 @@ package idb.operators.impl
 import scala.collection.mutable
 import idb.operators._
 import idb.observer.{Observable, NotifyObservers, Observer}
+import idb.metrics.MemoryFootprint
 import idb.{MaterializedView, Relation}
 import scala.Some
 
@@ -41,6 +42,7 @@ class AggregationForNotSelfMaintainableFunctions[Domain, Key, AggregateValue, Re
     with Observer[Domain]
     with NotifyObservers[Result]
 	with MaterializedView[Result]
+    with MemoryFootprint
 {
 
     source.addObserver (this)
@@ -51,6 +53,15 @@ class AggregationForNotSelfMaintainableFunctions[Domain, Key, AggregateValue, Re
     val groups = mutable
         .Map[Key, (HashMultiset[Domain], NotSelfMaintainableAggregateFunction[Domain, AggregateValue], Result)]()
 
+    private def groupedElements: Long = groups.values.foldLeft (0L)(_ + _._1.elementSet ().size ())
+
+    def retainedEntries: Long = groups.size + groupedElements
+
+    // each group stores a tuple, an aggregate function and a multiset of the grouped elements
+    def estimatedBytes: Long =
+        groups.size * (MemoryFootprint.HashEntryBytes + 2 * MemoryFootprint.ObjectBytes + MemoryFootprint.CollectionBytes) +
+            MemoryFootprint.multisetEntries (groupedElements)
+
     // aggregation need to be isInitialized for update and remove events
     lazyInitialize ()
 
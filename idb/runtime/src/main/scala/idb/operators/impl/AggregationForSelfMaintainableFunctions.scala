@@ -5,6 +5,7 @@ import collection.mutable
 import idb.{MaterializedView, Relation}
 import idb.operators.{AggregateFunction, SelfMaintainableAggregateFunctionFactory, Aggregation, SelfMaintainableAggregateFunction}
 import idb.observer.{Observable, NotifyObservers, Observer}
+import idb.metrics.MemoryFootprint
 
 /**
  * An implementation of Aggregation that only saves the newResult of aggregation function (aggregationFunction)
@@ -32,6 +33,7 @@ class AggregationForSelfMaintainableFunctions[Domain, Key, AggregateValue, Resul
     with Observer[Domain]
 	with NotifyObservers[Result]
 	with MaterializedView[Result]
+    with MemoryFootprint
 {
 
 
@@ -40,6 +42,11 @@ class AggregationForSelfMaintainableFunctions[Domain, Key, AggregateValue, Resul
 
     val groups = mutable.Map[Key, (Count, SelfMaintainableAggregateFunction[Domain, AggregateValue], Result)]()
 
+    def retainedEntries: Long = groups.size
+
+    // each group stores a tuple, a count and an aggregate function
+    def estimatedBytes: Long = groups.size * (MemoryFootprint.HashEntryBytes + 3 * MemoryFootprint.ObjectBytes)
+
     // aggregation need to be isInitialized for update and remove events
      lazyInitialize()
 
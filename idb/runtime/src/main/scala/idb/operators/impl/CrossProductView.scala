@@ -4,6 +4,7 @@ import idb.operators.CrossProduct
 import idb.{MaterializedView, Table, Relation}
 import idb.observer.{Observable, NotifyObservers, Observer}
 import com.google.common.collect.{ConcurrentHashMultiset, Multiset}
+import idb.metrics.MemoryFootprint
 
 /**
  * The cross product does not really require the underlying relations to be materialized directly.
@@ -13,7 +14,7 @@ class CrossProductView[DomainA, DomainB, Range](val left: Relation[DomainA],
 												val right: Relation[DomainB],
 												val projection: (DomainA, DomainB) => Range,
 												override val isSet: Boolean)
-	extends CrossProduct[DomainA, DomainB, Range] with NotifyObservers[Range] {
+	extends CrossProduct[DomainA, DomainB, Range] with NotifyObservers[Range] with MemoryFootprint {
 
 	left addObserver LeftObserver
 	right addObserver RightObserver
@@ -21,6 +22,10 @@ class CrossProductView[DomainA, DomainB, Range](val left: Relation[DomainA],
 	private val leftSet : Multiset[DomainA] = ConcurrentHashMultiset.create()
 	private val rightSet : Multiset[DomainB] = ConcurrentHashMultiset.create()
 
+	def retainedEntries: Long = leftSet.elementSet().size() + rightSet.elementSet().size()
+
+	def estimatedBytes: Long = MemoryFootprint.multisetEntries(retainedEntries)
+
 	override protected def lazyInitialize() {
 		/* do nothing */
 	}
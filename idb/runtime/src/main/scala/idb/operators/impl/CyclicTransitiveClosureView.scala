@@ -36,6 +36,7 @@ import collection.mutable
 import idb.{Index, MaterializedView, Relation}
 import idb.operators.TransitiveClosure
 import idb.observer.{Observer, Observable, NotifyObservers}
+import idb.metrics.MemoryFootprint
 
 /**
  *
@@ -58,7 +59,8 @@ class CyclicTransitiveClosureView[Edge, Vertex](val source: Relation[Edge],
 	extends TransitiveClosure[Edge, Vertex]
 	with Observer[Edge]
 	with NotifyObservers[(Vertex, Vertex)]
-	with MaterializedView[(Vertex, Vertex)] {
+	with MaterializedView[(Vertex, Vertex)]
+	with MemoryFootprint {
 	source addObserver this
 
 
@@ -68,6 +70,17 @@ class CyclicTransitiveClosureView[Edge, Vertex](val source: Relation[Edge],
 
 	private val sccRepresentatives = mutable.HashMap[Vertex, Vertex]()
 
+	private def adjacentVertices: Long =
+		nonSCCDescendants.values.foldLeft(0L)(_ + _.size) + nonSCCPredecessors.values.foldLeft(0L)(_ + _.size)
+
+	def retainedEntries: Long = adjacentVertices + sccRepresentatives.size
+
+	def estimatedBytes: Long = {
+		val vertices = nonSCCDescendants.size + nonSCCPredecessors.size
+		vertices * (MemoryFootprint.HashEntryBytes + MemoryFootprint.CollectionBytes) +
+			MemoryFootprint.hashEntries(adjacentVertices + sccRepresentatives.size)
+	}
+
 
 	lazyInitialize()
 
@@ -35,6 +35,7 @@ package idb.operators.impl
 import idb.Relation
 import idb.operators.Difference
 import idb.observer.{NotifyObservers, Observer, Observable}
+import idb.metrics.MemoryFootprint
 
 
 /**
@@ -51,7 +52,7 @@ import idb.observer.{NotifyObservers, Observer, Observable}
 class DifferenceView[Domain](val left: Relation[Domain],
                              val right: Relation[Domain],
 							 override val isSet : Boolean)
-    extends Difference[Domain] with NotifyObservers[Domain]
+    extends Difference[Domain] with NotifyObservers[Domain] with MemoryFootprint
 {
     left addObserver LeftObserver
 
@@ -63,6 +64,10 @@ class DifferenceView[Domain](val left: Relation[Domain],
 
     private val rightDiffLeft: HashMultiset[Domain] = HashMultiset.create[Domain]()
 
+    def retainedEntries: Long = leftDiffRight.elementSet ().size () + rightDiffLeft.elementSet ().size ()
+
+    def estimatedBytes: Long = MemoryFootprint.multisetEntries (retainedEntries)
+
     lazyInitialize ()
 
 	override protected def childObservers(o: Observable[_]): Seq[Observer[_]] = {
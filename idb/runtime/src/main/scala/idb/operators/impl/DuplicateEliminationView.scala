@@ -35,6 +35,7 @@ package idb.operators.impl
 import idb.Relation
 import idb.operators.DuplicateElimination
 import idb.observer.{NotifyObservers, Observable, Observer}
+import idb.metrics.MemoryFootprint
 
 
 /**
@@ -46,7 +47,8 @@ class DuplicateEliminationView[Domain](val relation: Relation[Domain],
 									  override val isSet : Boolean)
 	extends DuplicateElimination[Domain]
 	with Observer[Domain]
-	with NotifyObservers[Domain] {
+	with NotifyObservers[Domain]
+	with MemoryFootprint {
 
 	relation addObserver this
 
@@ -54,6 +56,10 @@ class DuplicateEliminationView[Domain](val relation: Relation[Domain],
 
 	private val data: HashMultiset[Domain] = HashMultiset.create[Domain]()
 
+	def retainedEntries: Long = data.elementSet().size()
+
+	def estimatedBytes: Long = MemoryFootprint.multisetEntries(retainedEntries)
+
 	lazyInitialize()
 
 
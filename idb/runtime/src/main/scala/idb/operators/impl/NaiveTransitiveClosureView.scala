@@ -37,6 +37,7 @@ import idb.operators.TransitiveClosure
 import idb.observer.{Observable, NotifyObservers, Observer}
 import scala.collection.mutable.{HashSet, HashMap}
 import scala.util.control.Breaks._
+import idb.metrics.MemoryFootprint
 
 
 /**
@@ -56,6 +57,7 @@ class NaiveTransitiveClosureView[Edge, Vertex](val source: Relation[Edge],
     with Observer[Edge]
 	with NotifyObservers[(Vertex,Vertex)]
 	with MaterializedView[(Vertex,Vertex)]
+    with MemoryFootprint
 {
     source addObserver this
 
@@ -75,6 +77,17 @@ class NaiveTransitiveClosureView[Edge, Vertex](val source: Relation[Edge],
     // (v,u)(v,w)
     // (v,x)
 
+    private def adjacentVertices: Long =
+        transitiveClosure.values.foldLeft (0L)((sum, paths) => sum + paths._1.size + paths._2.size)
+
+    def retainedEntries: Long = graph.size () + transitiveClosure.size + adjacentVertices
+
+    // each vertex stores a tuple of two sets
+    def estimatedBytes: Long =
+        MemoryFootprint.setMultimapEntries (graph.keySet ().size (), graph.size ()) +
+            transitiveClosure.size * (MemoryFootprint.HashEntryBytes + MemoryFootprint.ObjectBytes + 2 * MemoryFootprint.CollectionBytes) +
+            MemoryFootprint.hashEntries (adjacentVertices)
+
     lazyInitialize ()
 
     override def endTransaction() {
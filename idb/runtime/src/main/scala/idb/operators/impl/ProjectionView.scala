@@ -35,6 +35,7 @@ package idb.operators.impl
 import idb.operators.Projection
 import idb.observer.{NotifyObservers, Observable, Observer}
 import idb.Relation
+import idb.operators.impl.batch.{Chunk, BatchFunction}
 
 /**
  *
@@ -42,6 +43,7 @@ import idb.Relation
  *
  * The bag projection has the usual SQL meaning of a projection
  * The projection is always self maintained and requires no additional data apart from the provided delta.
+ * Batches are projected as chunks by batchProjection, which defaults to a loop over projection.
  *
  * @author Ralf Mitschke
  *
@@ -49,12 +51,16 @@ import idb.Relation
 class ProjectionView[Domain, Range] (
     val relation: Relation[Domain],
     val projection: Domain => Range,
-    val isSet: Boolean
+    val isSet: Boolean,
+    val batchProjection: BatchFunction[Domain, Range] = null
 )
     extends Projection[Domain, Range]
     with Observer[Domain]
     with NotifyObservers[Range]
 {
+    private val mapChunk: BatchFunction[Domain, Range] =
+        if (batchProjection != null) batchProjection else BatchFunction (projection)
+
     relation addObserver this
 
 
@@ -95,13 +101,11 @@ class ProjectionView[Domain, Range] (
 
 
   override def removedAll(vs: Seq[Domain]) {
-    val removed = vs map (projection(_))
-    notify_removedAll(removed)
+    notify_removedAll(mapChunk.map(Chunk(vs)))
   }
 
   override def addedAll(vs: Seq[Domain]) {
-    val added = vs map (projection(_))
-    notify_addedAll(added)
+    notify_addedAll(mapChunk.map(Chunk(vs)))
   }
 
 }
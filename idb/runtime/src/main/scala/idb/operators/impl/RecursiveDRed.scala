@@ -36,6 +36,7 @@ import idb.Relation
 import idb.operators.Recursive
 import idb.observer.NotifyObservers
 import scala.collection.mutable
+import idb.metrics.MemoryFootprint
 
 
 /**
@@ -49,7 +50,8 @@ class RecursiveDRed[Domain](val relation: Relation[Domain],
                             val transactional: Boolean = false
                              )
   extends Recursive[Domain]
-  with NotifyObservers[Domain] {
+  with NotifyObservers[Domain]
+  with MemoryFootprint {
 
   relation.addObserver(this)
 
@@ -64,6 +66,11 @@ class RecursiveDRed[Domain](val relation: Relation[Domain],
 
   private var deletedElements: mutable.HashMap[Domain, Int] = mutable.HashMap.empty
 
+  def retainedEntries: Long = supportedElements.size + deletedElements.size
+
+  // the support counts are boxed integers
+  def estimatedBytes: Long = retainedEntries * (MemoryFootprint.HashEntryBytes + MemoryFootprint.CountBytes)
+
   private def mergeCurrentSupportTo(v: Domain) {
     val supportingPathCount = supportedElements(v)
     supportedElements(v) = supportingPathCount + 1
@@ -106,8 +113,6 @@ class RecursiveDRed[Domain](val relation: Relation[Domain],
   }
 
   def addedAll(vs: Seq[Domain]) {
-    println(s"Recursive add, size ${vs.size}")
-
     val newVs = vs filter {v =>
       if (supportedElements.contains(v)) {
         // we have reached a value that was previously defined.
@@ -169,8 +174,6 @@ class RecursiveDRed[Domain](val relation: Relation[Domain],
   }
 
   def removedAll(vs: Seq[Domain]) {
-    println(s"Recursive rem, size ${vs.size}")
-    
     val newVs = vs filter { v =>
       if (deletedElements.contains(v)) {
         // we have reached a value that was previously defined.
@@ -35,6 +35,7 @@ package idb.operators.impl
 import idb.operators.Selection
 import idb.observer.{NotifyObservers, Observable, Observer}
 import idb.Relation
+import idb.operators.impl.batch.{Chunk, BatchPredicate}
 
 /**
  *
@@ -43,16 +44,23 @@ import idb.Relation
  *
  * The selection automatically registers as an observer of the relation upon construction
  *
+ * Batches are filtered as chunks by batchFilter, which defaults to a loop over filter.
+ *
  * @author Ralf Mitschke
  */
 class SelectionView[Domain](
                              val relation: Relation[Domain],
                              val filter: Domain => Boolean,
-                             val isSet: Boolean
+                             val isSet: Boolean,
+                             val batchFilter: BatchPredicate[Domain] = null
                              )
   extends Selection[Domain]
   with Observer[Domain]
   with NotifyObservers[Domain] {
+
+  private val selectChunk: BatchPredicate[Domain] =
+    if (batchFilter != null) batchFilter else BatchPredicate[Domain](applyFilter)
+
   relation addObserver this
 
 
@@ -107,8 +115,7 @@ class SelectionView[Domain](
   }
 
   def removedAll(vs: Seq[Domain]) {
-    val removed = vs filter (applyFilter(_))
-    notify_removedAll(removed)
+    notify_removedAll(selectChunk.select(Chunk(vs)))
   }
 
 
@@ -119,17 +126,14 @@ class SelectionView[Domain](
   }
 
   def addedAll(vs: Seq[Domain]) {
-    val added = vs filter (applyFilter(_))
-    notify_addedAll(added)
+    notify_addedAll(selectChunk.select(Chunk(vs)))
   }
 
   private def applyFilter(v: Domain): Boolean = {
     try {
       filter(v)
     } catch {
-      case e: IndexOutOfBoundsException => false
-      case e: ClassCastException => false
-      case e: NoSuchElementException => false
+      case e: RuntimeException if BatchPredicate.rejects(e) => false
     }
   }
 
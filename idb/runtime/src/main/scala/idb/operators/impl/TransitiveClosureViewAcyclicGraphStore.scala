@@ -36,6 +36,7 @@ import collection.mutable
 import idb.{MaterializedView, Relation}
 import idb.operators.TransitiveClosure
 import idb.observer.{Observer, Observable, NotifyObservers}
+import idb.metrics.MemoryFootprint
 
 /**
  * A simple transitive closure, that should support minimal memory, by just storing the graph.
@@ -52,13 +53,23 @@ class TransitiveClosureViewAcyclicGraphStore[Edge, Vertex](val source: Relation[
   extends TransitiveClosure[Edge, Vertex]
   with Observer[Edge]
   with NotifyObservers[(Vertex, Vertex)]
-  with MaterializedView[(Vertex, Vertex)] {
+  with MaterializedView[(Vertex, Vertex)]
+  with MemoryFootprint {
   source addObserver this
 
   private val graphIncomingEdges = mutable.HashMap[Vertex, List[Edge]]()
 
   private val graphOutgoingEdges = mutable.HashMap[Vertex, List[Edge]]()
 
+  private def storedEdges: Long =
+    graphIncomingEdges.values.foldLeft(0L)(_ + _.size) + graphOutgoingEdges.values.foldLeft(0L)(_ + _.size)
+
+  def retainedEntries: Long = storedEdges
+
+  // the edges of a vertex are stored as a list of cons cells
+  def estimatedBytes: Long =
+    MemoryFootprint.hashEntries(graphIncomingEdges.size + graphOutgoingEdges.size) + storedEdges * MemoryFootprint.ObjectBytes
+
   lazyInitialize()
 
   private def transitiveClosureApplyForward[U](start: Vertex, f: (Vertex, Vertex) => U) {
@@ -33,6 +33,7 @@
 package idb.operators.impl
 
 import util.TransactionKeyValueObserver
+import idb.metrics.MemoryFootprint
 import idb.Relation
 import idb.operators.EquiJoin
 import idb.observer.{Observer, Observable, NotifyObservers}
@@ -46,12 +47,17 @@ class WaitingTransactionalEquiJoinView[DomainA, DomainB, Range, Key](val left: R
 															  override val isSet : Boolean)
     extends EquiJoin[DomainA, DomainB, Range, Key]
 	with NotifyObservers[Range]
+	with MemoryFootprint
 {
 
     left addObserver LeftObserver
 
     right addObserver RightObserver
 
+    def retainedEntries: Long = LeftObserver.retainedEntries + RightObserver.retainedEntries
+
+    def estimatedBytes: Long = LeftObserver.estimatedBytes + RightObserver.estimatedBytes
+
     override def children = List (left, right)
 
 	override def lazyInitialize() {
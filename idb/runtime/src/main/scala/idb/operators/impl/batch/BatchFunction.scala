@@ -0,0 +1,66 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.operators.impl.batch
+
+/**
+ * A function over whole chunks, yielding a dense chunk of the results.
+ * Implementations generated per query run the function in a loop of their own, such that the call to the function is
+ * monomorphic and can be inlined.
+ */
+trait BatchFunction[Domain, Range]
+{
+    def map (chunk: Chunk[Domain]): Chunk[Range]
+}
+
+object BatchFunction
+{
+
+    /**
+     * Returns a batch function that runs f in a loop shared by all functions.
+     */
+    def apply[Domain, Range] (f: Domain => Range): BatchFunction[Domain, Range] =
+        new BatchFunction[Domain, Range]
+        {
+            def map (chunk: Chunk[Domain]): Chunk[Range] = {
+                val length = chunk.length
+                val results = new Array[Any](length)
+                var i = 0
+                while (i < length) {
+                    results (i) = f (chunk.element (chunk.row (i)).asInstanceOf[Domain])
+                    i += 1
+                }
+                Chunk.dense (results, length)
+            }
+        }
+
+}
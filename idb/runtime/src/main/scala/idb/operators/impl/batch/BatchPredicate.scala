@@ -0,0 +1,83 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.operators.impl.batch
+
+/**
+ * A filter over whole chunks.
+ * Implementations generated per query run the filter in a loop of their own, such that the call to the filter is
+ * monomorphic and can be inlined.
+ */
+trait BatchPredicate[V]
+{
+    def select (chunk: Chunk[V]): Chunk[V]
+}
+
+object BatchPredicate
+{
+
+    /**
+     * Returns a batch predicate that runs filter in a loop shared by all predicates.
+     */
+    def apply[V] (filter: V => Boolean): BatchPredicate[V] =
+        new BatchPredicate[V]
+        {
+            def select (chunk: Chunk[V]): Chunk[V] = {
+                val length = chunk.length
+                val selection = new Array[Int](length)
+                var selected = 0
+                var i = 0
+                while (i < length) {
+                    val row = chunk.row (i)
+                    if (filter (chunk.element (row).asInstanceOf[V])) {
+                        selection (selected) = row
+                        selected += 1
+                    }
+                    i += 1
+                }
+                chunk.select (selection, selected)
+            }
+        }
+
+    /**
+     * Tells whether a filter threw e because it does not apply to the element, e.g., an index into a too short
+     * sequence. Such elements do not pass the filter.
+     */
+    def rejects (e: Throwable): Boolean =
+        e match {
+            case _: IndexOutOfBoundsException => true
+            case _: ClassCastException => true
+            case _: NoSuchElementException => true
+            case _ => false
+        }
+
+}
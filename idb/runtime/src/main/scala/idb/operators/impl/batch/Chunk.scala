@@ -0,0 +1,107 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.operators.impl.batch
+
+/**
+ * A batch of elements, passed along by stateless operators in addedAll and removedAll.
+ * The elements are stored in an array, or in the immutable indexed sequence the chunk was made of.
+ * A selection vector holds the rows of the elements that belong to the chunk, such that a selection
+ * can drop elements without copying the remaining ones.
+ * If the selection vector is null all rows up to length belong to the chunk.
+ *
+ * A chunk is a Seq, hence operators that know nothing about chunks process them like any other batch.
+ */
+final class Chunk[+V] private (
+    array: Array[Any],
+    indexed: IndexedSeq[Any],
+    val selection: Array[Int],
+    val length: Int
+)
+    extends IndexedSeq[V]
+{
+
+    def isDense: Boolean = selection == null
+
+    /**
+     * Returns the storage of the elements, which is shared by all chunks selected from this chunk.
+     */
+    def elements: AnyRef =
+        if (array != null) array else indexed
+
+    /**
+     * Returns the element stored in the given row.
+     */
+    def element (row: Int): Any =
+        if (array != null) array (row) else indexed (row)
+
+    /**
+     * Returns the row in the elements array of the i-th element of this chunk.
+     */
+    def row (i: Int): Int =
+        if (selection == null) i else selection (i)
+
+    def apply (i: Int): V =
+        element (row (i)).asInstanceOf[V]
+
+    /**
+     * Returns the chunk that contains the rows of the first selected entries of selection.
+     * The selection must be a subsequence of the rows of this chunk.
+     */
+    def select (selection: Array[Int], selected: Int): Chunk[V] =
+        if (selected == length)
+            this
+        else
+            new Chunk[V](array, indexed, selection, selected)
+}
+
+object Chunk
+{
+
+    def dense[V] (elements: Array[Any], length: Int): Chunk[V] =
+        new Chunk[V](elements, null, null, length)
+
+    /**
+     * Returns vs as chunk. Immutable indexed sequences are wrapped without copying. All other sequences are copied,
+     * since operators downstream may keep the chunk while the owner of a mutable sequence reuses it.
+     */
+    def apply[V] (vs: Seq[V]): Chunk[V] =
+        vs match {
+            case chunk: Chunk[V] => chunk
+            case seq: scala.collection.immutable.IndexedSeq[V] => new Chunk[V](null, seq, null, seq.length)
+            case _ =>
+                val elements = new Array[Any](vs.size)
+                vs.copyToArray (elements)
+                dense (elements, elements.length)
+        }
+
+}
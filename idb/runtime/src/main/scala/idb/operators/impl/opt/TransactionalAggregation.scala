@@ -6,6 +6,7 @@ import idb.operators._
 import idb.observer.{Observable, NotifyObservers, Observer}
 import com.google.common.collect.HashMultimap
 import scala.collection.JavaConverters._
+import idb.metrics.MemoryFootprint
 
 /**
  * Transactional aggregation operator for self maintained and not self maintained functions
@@ -19,7 +20,8 @@ class TransactionalAggregation[Domain, Key, AggregateValue, Result](val source:
 																	override val isSet: Boolean)
 	extends Aggregation[Domain, Key, AggregateValue, Result, AggregateFunction[Domain, AggregateValue], AggregateFunctionFactory[Domain, AggregateValue, AggregateFunction[Domain, AggregateValue]]]
 	with Observer[Domain]
-	with NotifyObservers[Result] {
+	with NotifyObservers[Result]
+	with MemoryFootprint {
 
 	type Aggregate = AggregateFunction[Domain, AggregateValue]
 
@@ -30,6 +32,13 @@ class TransactionalAggregation[Domain, Key, AggregateValue, Result](val source:
 
 	var functionMap: mutable.HashMap[Key, Aggregate] = mutable.HashMap.empty[Key, Aggregate]
 
+	def retainedEntries: Long = functionMap.size + additionsMap.size() + deletionsMap.size()
+
+	def estimatedBytes: Long =
+		functionMap.size * (MemoryFootprint.HashEntryBytes + MemoryFootprint.ObjectBytes) +
+			MemoryFootprint.setMultimapEntries(additionsMap.keySet().size(), additionsMap.size()) +
+			MemoryFootprint.setMultimapEntries(deletionsMap.keySet().size(), deletionsMap.size())
+
 
 	private def getFunctionForKey(key: Key): (Aggregate, Boolean) = {
 		functionMap.get(key) match {
@@ -36,6 +36,7 @@ import collection.mutable
 import idb.Relation
 import idb.operators.impl.util.TransactionKeyValueObserver
 import idb.observer.{Observer, NotifyObservers}
+import idb.metrics.MemoryFootprint
 
 /**
  *
@@ -49,7 +50,8 @@ class TransactionalAnchorAndFixPointRecursionView[Domain, Range, Key](val anchor
                                                                       val step: (Domain, Range) => Range)
   extends Relation[Range]
   with TransactionKeyValueObserver[Key, Domain]
-  with NotifyObservers[Range] {
+  with NotifyObservers[Range]
+  with MemoryFootprint {
 
   anchors.addObserver(AnchorObserver)
 
@@ -61,6 +63,11 @@ class TransactionalAnchorAndFixPointRecursionView[Domain, Range, Key](val anchor
   var deletionAnchors: List[Range] = Nil
   var deletionResults = mutable.HashSet.empty[Range]
 
+  override def retainedEntries: Long = additionResults.size + deletionResults.size + super.retainedEntries
+
+  override def estimatedBytes: Long =
+    MemoryFootprint.hashEntries(additionResults.size + deletionResults.size) + super.estimatedBytes
+
 
   def keyFunc = domainKeyFunction
 
@@ -4,16 +4,21 @@ import idb.operators.CrossProduct
 import idb.{Table, Relation}
 import idb.observer.{Observable, NotifyObservers, Observer}
 import idb.operators.impl.util.TransactionElementObserver
+import idb.metrics.MemoryFootprint
 
 class TransactionalCrossProductView[DomainA, DomainB, Range](val left: Relation[DomainA],
 												val right: Relation[DomainB],
 												val projection: (DomainA, DomainB) => Range,
 												override val isSet: Boolean)
-	extends CrossProduct[DomainA, DomainB, Range] with NotifyObservers[Range] {
+	extends CrossProduct[DomainA, DomainB, Range] with NotifyObservers[Range] with MemoryFootprint {
 
 	left addObserver LeftObserver
 	right addObserver RightObserver
 
+	def retainedEntries: Long = LeftObserver.retainedEntries + RightObserver.retainedEntries
+
+	def estimatedBytes: Long = LeftObserver.estimatedBytes + RightObserver.estimatedBytes
+
 	var leftTransactionEnded = false
 	var rightTransactionEnded = false
 
@@ -37,6 +37,7 @@ import idb.{MaterializedView, Relation}
 import idb.operators.TransitiveClosure
 import idb.observer.{Observer, Observable, NotifyObservers}
 import idb.operators.impl.util.TransactionElementObserver
+import idb.metrics.MemoryFootprint
 
 /**
  *
@@ -60,6 +61,7 @@ class TransactionalCyclicTransitiveClosureView[Edge, Vertex] (val source: Relati
     with TransactionElementObserver[Edge]
     with NotifyObservers[(Vertex, Vertex)]
     with MaterializedView[(Vertex, Vertex)]
+    with MemoryFootprint
 {
     source addObserver this
 
@@ -69,6 +71,18 @@ class TransactionalCyclicTransitiveClosureView[Edge, Vertex] (val source: Relati
 
     private var sccRepresentatives = mutable.HashMap.empty[Vertex, Vertex]
 
+    private def adjacentVertices: Long =
+        adjacencyLists.values.foldLeft (0L)(_ + _.size) + nonSCCDescendants.values.foldLeft (0L)(_ + _.size)
+
+    override def retainedEntries: Long = adjacentVertices + sccRepresentatives.size + super.retainedEntries
+
+    override def estimatedBytes: Long = {
+        val vertices = adjacencyLists.size + nonSCCDescendants.size
+        vertices * (MemoryFootprint.HashEntryBytes + MemoryFootprint.CollectionBytes) +
+            MemoryFootprint.hashEntries (adjacentVertices + sccRepresentatives.size) +
+            super.estimatedBytes
+    }
+
 
     override def clear () {
         adjacencyLists = mutable.HashMap.empty[Vertex, mutable.HashSet[Edge]]
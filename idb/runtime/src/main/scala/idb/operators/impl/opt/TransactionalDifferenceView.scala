@@ -37,6 +37,7 @@ import idb.Relation
 import idb.operators.Difference
 import idb.observer.{Observer, Observable, NotifyObservers}
 import idb.operators.impl.util.TransactionElementObserver
+import idb.metrics.MemoryFootprint
 
 /**
  * The difference operation in our algebra has non-distinct bag semantics
@@ -54,11 +55,16 @@ class TransactionalDifferenceView[Domain](val left: Relation[Domain],
 										  override val isSet : Boolean)
     extends Difference[Domain]
 	with NotifyObservers[Domain]
+	with MemoryFootprint
 {
     left addObserver LeftObserver
 
     right addObserver RightObserver
 
+    def retainedEntries: Long = LeftObserver.retainedEntries + RightObserver.retainedEntries
+
+    def estimatedBytes: Long = LeftObserver.estimatedBytes + RightObserver.estimatedBytes
+
     import com.google.common.collect.HashMultiset
 
 	override def lazyInitialize() {
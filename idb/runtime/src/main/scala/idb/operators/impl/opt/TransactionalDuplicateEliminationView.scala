@@ -35,6 +35,7 @@ package idb.operators.impl.opt
 import idb.Relation
 import idb.operators.DuplicateElimination
 import idb.observer.{Observable, NotifyObservers, Observer}
+import idb.metrics.MemoryFootprint
 
 
 /**
@@ -46,7 +47,8 @@ class TransactionalDuplicateEliminationView[Domain](val relation: Relation[Domai
                                                     override val isSet: Boolean)
   extends DuplicateElimination[Domain]
   with Observer[Domain]
-  with NotifyObservers[Domain] {
+  with NotifyObservers[Domain]
+  with MemoryFootprint {
 
   relation addObserver this
 
@@ -54,6 +56,10 @@ class TransactionalDuplicateEliminationView[Domain](val relation: Relation[Domai
 
   private var data: HashMultiset[Domain] = HashMultiset.create[Domain]()
 
+  def retainedEntries: Long = data.elementSet().size()
+
+  def estimatedBytes: Long = MemoryFootprint.multisetEntries(retainedEntries)
+
   lazyInitialize()
 
   override def endTransaction() {
@@ -36,6 +36,7 @@ import collection.mutable
 import idb.{View, Relation}
 import idb.observer.{Observer, NotifyObservers}
 import idb.operators.impl.util.TransactionKeyValueObserver
+import idb.metrics.MemoryFootprint
 
 /**
  *
@@ -51,7 +52,8 @@ class TransactionalFixCombinatorRecursionView[Domain, Range, Key](val anchors: R
                                                                   override val isSet: Boolean)
   extends View[Range]
   with TransactionKeyValueObserver[Key, Domain]
-  with NotifyObservers[Range] {
+  with NotifyObservers[Range]
+  with MemoryFootprint {
 
   anchors.addObserver(AnchorObserver)
 
@@ -63,6 +65,11 @@ class TransactionalFixCombinatorRecursionView[Domain, Range, Key](val anchors: R
   var deletionAnchors: List[Range] = Nil
   var deletionResults = mutable.HashMap.empty[Key, Range]
 
+  override def retainedEntries: Long = additionResults.size + deletionResults.size + super.retainedEntries
+
+  override def estimatedBytes: Long =
+    MemoryFootprint.hashEntries(additionResults.size + deletionResults.size) + super.estimatedBytes
+
 
   def keyFunc = domainKeyFunction
 
@@ -37,6 +37,7 @@ import idb.Relation
 import idb.operators.FixPointRecursion
 import idb.observer.NotifyObservers
 import idb.operators.impl.util.TransactionKeyValueObserver
+import idb.metrics.MemoryFootprint
 
 /**
  *
@@ -52,6 +53,7 @@ class TransactionalFixPointRecursionView[Domain, Range, Key](val source: Relatio
   extends FixPointRecursion[Domain, Range, Key]
   with TransactionKeyValueObserver[Key, Domain]
 	with NotifyObservers[Range]
+  with MemoryFootprint
 {
 
   source addObserver this
@@ -61,6 +63,11 @@ class TransactionalFixPointRecursionView[Domain, Range, Key](val source: Relatio
   var deletionAnchors: List[Range] = Nil
   var deletionResults = mutable.HashSet.empty[Range]
 
+  override def retainedEntries: Long = additionResults.size + deletionResults.size + super.retainedEntries
+
+  override def estimatedBytes: Long =
+    MemoryFootprint.hashEntries(additionResults.size + deletionResults.size) + super.estimatedBytes
+
   override def lazyInitialize() {
 
   }
@@ -36,6 +36,7 @@ import idb.{Relation, MaterializedView}
 import idb.operators.Intersection
 import idb.observer.{NotifyObservers, Observer, Observable}
 import idb.operators.impl.util.TransactionElementObserver
+import idb.metrics.MemoryFootprint
 
 
 /**
@@ -47,11 +48,16 @@ class TransactionalIntersectionView[Domain](val left: Relation[Domain],
 							   override val isSet : Boolean)
     extends Intersection[Domain]
 	with NotifyObservers[Domain]
+	with MemoryFootprint
 {
 
     left addObserver LeftObserver
     right addObserver RightObserver
 
+    def retainedEntries: Long = LeftObserver.retainedEntries + RightObserver.retainedEntries
+
+    def estimatedBytes: Long = LeftObserver.estimatedBytes + RightObserver.estimatedBytes
+
 	var leftTransactionEnded = false
 	var rightTransactionEnded = false
 
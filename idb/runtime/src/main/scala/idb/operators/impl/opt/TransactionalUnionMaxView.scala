@@ -36,6 +36,7 @@ import idb.operators.Union
 import idb.Relation
 import idb.observer.NotifyObservers
 import idb.operators.impl.util.TransactionElementObserver
+import idb.metrics.MemoryFootprint
 
 
 /**
@@ -46,11 +47,16 @@ class TransactionalUnionMaxView[Range, DomainA <: Range, DomainB <: Range](
 																			  val right: Relation[DomainB],
 																			  override val isSet: Boolean)
 	extends Union[Range, DomainA, DomainB]
-	with NotifyObservers[Range] {
+	with NotifyObservers[Range]
+	with MemoryFootprint {
 
 	left addObserver LeftObserver
 	right addObserver RightObserver
 
+	def retainedEntries: Long = LeftObserver.retainedEntries + RightObserver.retainedEntries
+
+	def estimatedBytes: Long = LeftObserver.estimatedBytes + RightObserver.estimatedBytes
+
 	var leftTransactionEnded: Boolean = false
 	var rightTransactionEnded: Boolean = false
 
@@ -35,6 +35,7 @@ package idb.operators.impl.util
 import com.google.common.collect.HashMultiset
 
 import idb.observer.Observer
+import idb.metrics.MemoryFootprint
 
 /**
  *
@@ -43,12 +44,17 @@ import idb.observer.Observer
  */
 
 trait TransactionElementObserver[Domain]
-  extends Observer[Domain] {
+  extends Observer[Domain]
+  with MemoryFootprint {
 
   var additions = HashMultiset.create[Domain]()
 
   var deletions = HashMultiset.create[Domain]()
 
+  def retainedEntries: Long = additions.elementSet().size() + deletions.elementSet().size()
+
+  def estimatedBytes: Long = MemoryFootprint.multisetEntries(retainedEntries)
+
   def clear() {
     additions = HashMultiset.create[Domain]()
     deletions = HashMultiset.create[Domain]()
@@ -34,6 +34,7 @@ package idb.operators.impl.util
 
 
 import idb.observer.Observer
+import idb.metrics.MemoryFootprint
 
 /**
  *
@@ -42,7 +43,8 @@ import idb.observer.Observer
  */
 
 trait TransactionKeyValueObserver[Key, Domain]
-  extends Observer[Domain] {
+  extends Observer[Domain]
+  with MemoryFootprint {
 
   def keyFunc: Domain => Key
 
@@ -50,6 +52,12 @@ trait TransactionKeyValueObserver[Key, Domain]
 
   var deletions = com.google.common.collect.ArrayListMultimap.create[Key, Domain]()
 
+  def retainedEntries: Long = additions.size() + deletions.size()
+
+  def estimatedBytes: Long =
+    MemoryFootprint.listMultimapEntries(additions.keySet().size(), additions.size()) +
+      MemoryFootprint.listMultimapEntries(deletions.keySet().size(), deletions.size())
+
   def clear() {
     additions = com.google.common.collect.ArrayListMultimap.create[Key, Domain]()
     deletions = com.google.common.collect.ArrayListMultimap.create[Key, Domain]()
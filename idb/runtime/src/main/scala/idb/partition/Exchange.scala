@@ -0,0 +1,95 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.partition
+
+import idb.{Relation, Table}
+import idb.observer.Observer
+
+/**
+ * Sends the deltas of a relation to the workers owning their keys.
+ * Changes are collected in the outbox of the sending worker, which submits one batch per target worker.
+ * Updates that move an element to another worker are sent as a removal and an addition.
+ * Every worker sends the end of a transaction to all workers; an input ends the transaction once all workers did.
+ */
+class Exchange[V] (val relation: Relation[V], val key: V => Any, val execution: PartitionedExecution, val id: Int)
+    extends Observer[V]
+    with Destination[V]
+{
+    relation addObserver this
+
+    private[partition] def table (worker: Int): Table[V] =
+        execution.worker (worker).input[V](id)
+
+    private def target (v: V): Int =
+        execution.partition (key (v))
+
+    def updated (oldV: V, newV: V) {
+        val oldTarget = target (oldV)
+        val newTarget = target (newV)
+        if (oldTarget == newTarget)
+            execution.outbox (this, newTarget)(_.update (oldV, newV))
+        else {
+            removed (oldV)
+            added (newV)
+        }
+    }
+
+    def removed (v: V) {
+        execution.outbox.remove (this, target (v), v)
+    }
+
+    def removedAll (vs: Seq[V]) {
+        val outbox = execution.outbox
+        for (v <- vs)
+            outbox.remove (this, target (v), v)
+    }
+
+    def added (v: V) {
+        execution.outbox.add (this, target (v), v)
+    }
+
+    def addedAll (vs: Seq[V]) {
+        val outbox = execution.outbox
+        for (v <- vs)
+            outbox.add (this, target (v), v)
+    }
+
+    def endTransaction () {
+        val outbox = execution.outbox
+        for (worker <- 0 until execution.workers)
+            outbox (this, worker)(input =>
+                if (execution.worker (worker).endTransaction (id))
+                    input.endTransaction ()
+            )
+    }
+}
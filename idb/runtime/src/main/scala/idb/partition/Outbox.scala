@@ -0,0 +1,156 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.partition
+
+import idb.Table
+import scala.collection.mutable
+
+/**
+ * A table that exists once per worker, e.g., the partitions of a partitioned table or the inputs of an exchange.
+ */
+private[partition] trait Destination[V]
+{
+    /**
+     * Returns the table of the given worker. Must only be called on the thread of that worker.
+     */
+    private[partition] def table (worker: Int): Table[V]
+}
+
+/**
+ * Collects the changes that one thread sends to the workers, such that they are submitted as one task per worker.
+ * Consecutive additions or removals for the same destination are delivered as a single batch.
+ * The outbox submits its changes when flushed or when more than MaxBuffered changes are buffered.
+ * An outbox is confined to the thread it belongs to.
+ */
+private[partition] class Outbox (val execution: PartitionedExecution)
+{
+
+    private val deliveries: Array[mutable.ArrayBuffer[Delivery[_]]] =
+        Array.fill (execution.workers)(mutable.ArrayBuffer[Delivery[_]]())
+
+    private var buffered = 0
+
+    def add[V] (destination: Destination[V], worker: Int, v: V) {
+        val batch = deliveries (worker).lastOption match {
+            case Some (last: Additions[_]) if last.destination eq destination => last.asInstanceOf[Additions[V]]
+            case _ =>
+                val additions = new Additions[V](destination)
+                deliveries (worker) += additions
+                additions
+        }
+        batch.vs += v
+        buffered += 1
+        if (buffered >= Outbox.MaxBuffered)
+            flush ()
+    }
+
+    def remove[V] (destination: Destination[V], worker: Int, v: V) {
+        val batch = deliveries (worker).lastOption match {
+            case Some (last: Removals[_]) if last.destination eq destination => last.asInstanceOf[Removals[V]]
+            case _ =>
+                val removals = new Removals[V](destination)
+                deliveries (worker) += removals
+                removals
+        }
+        batch.vs += v
+        buffered += 1
+        if (buffered >= Outbox.MaxBuffered)
+            flush ()
+    }
+
+    def apply[V] (destination: Destination[V], worker: Int)(f: Table[V] => Unit) {
+        deliveries (worker) += new Call[V](destination, f)
+        buffered += 1
+        if (buffered >= Outbox.MaxBuffered)
+            flush ()
+    }
+
+    /**
+     * Submits all buffered changes, one task per worker.
+     */
+    def flush () {
+        if (buffered == 0)
+            return
+        buffered = 0
+        for (worker <- 0 until execution.workers if !deliveries (worker).isEmpty) {
+            val batch = deliveries (worker)
+            deliveries (worker) = mutable.ArrayBuffer[Delivery[_]]()
+            execution.submit (worker) {
+                batch.foreach (_.deliver (worker))
+            }
+        }
+    }
+
+    /**
+     * Drops all buffered changes, e.g., the partial output of a failed task.
+     */
+    def clear () {
+        buffered = 0
+        deliveries.foreach (_.clear ())
+    }
+
+    private abstract class Delivery[V] (val destination: Destination[V])
+    {
+        def deliver (worker: Int)
+    }
+
+    private class Additions[V] (to: Destination[V]) extends Delivery[V](to)
+    {
+        val vs = mutable.ArrayBuffer[V]()
+
+        def deliver (worker: Int) {
+            destination.table (worker).addAll (vs)
+        }
+    }
+
+    private class Removals[V] (to: Destination[V]) extends Delivery[V](to)
+    {
+        val vs = mutable.ArrayBuffer[V]()
+
+        def deliver (worker: Int) {
+            destination.table (worker).removeAll (vs)
+        }
+    }
+
+    private class Call[V] (to: Destination[V], f: Table[V] => Unit) extends Delivery[V](to)
+    {
+        def deliver (worker: Int) {
+            f (destination.table (worker))
+        }
+    }
+}
+
+private[partition] object Outbox
+{
+    val MaxBuffered = 1024
+}
@@ -0,0 +1,168 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.partition
+
+import idb.Relation
+import java.util.concurrent.{ThreadFactory, ExecutorService, Executors}
+import java.util.concurrent.atomic.{AtomicReference, AtomicLong}
+
+/**
+ * Runs copies of a query on a number of local workers, each confined to a thread of its own.
+ * The data of partitioned tables is hash partitioned on a key across the workers.
+ * Plans repartition their deltas with Worker.exchange before operators that require all elements with equal keys
+ * to reside on the same worker, e.g., before joins and aggregations on other keys than the partitioning key.
+ * The results of all workers are merged into a single PartitionedResult.
+ *
+ * Changes sent to a worker are buffered in the outbox of the sending thread and submitted as one batch per worker,
+ * i.e., at the end of a worker task, at the end of a batch or transaction of a partitioned table,
+ * or when the outbox is full. Single changes made by a client are submitted when that client calls flush.
+ *
+ * All processing is asynchronous. Clients call awaitQuiescence before reading results.
+ * Partitioned plans must not contain transactional operators, since every worker ends transactions on its own.
+ */
+class PartitionedExecution (val workers: Int)
+{
+    require (workers > 0, "at least one worker is required")
+
+    private val executors: Array[ExecutorService] =
+        Array.tabulate (workers)(i => Executors.newSingleThreadExecutor (new ThreadFactory
+        {
+            def newThread (r: Runnable): Thread = {
+                val thread = new Thread (r, "idb-worker-" + i)
+                thread.setDaemon (true)
+                thread
+            }
+        }))
+
+    private val workerContexts: Array[Worker] = Array.tabulate (workers)(new Worker (this, _))
+
+    // guards waiting for quiescence; the counter itself is only locked when it drops to zero
+    private val lock = new Object
+
+    private val pending = new AtomicLong (0)
+
+    private val failure = new AtomicReference[Throwable](null)
+
+    private val outboxes = new ThreadLocal[Outbox]
+    {
+        override def initialValue (): Outbox = new Outbox (PartitionedExecution.this)
+    }
+
+    def worker (i: Int): Worker = workerContexts (i)
+
+    /**
+     * Returns the worker that owns the elements with the given key.
+     */
+    def partition (key: Any): Int = {
+        val h = if (key == null) 0 else key.##
+        ((h ^ (h >>> 16)) & Int.MaxValue) % workers
+    }
+
+    /**
+     * Returns the outbox of the current thread.
+     */
+    private[partition] def outbox: Outbox = outboxes.get ()
+
+    /**
+     * Runs task on the thread of the given worker.
+     * Tasks of one worker run in the order they were submitted.
+     * The changes a task sends to other workers are submitted when the task ends.
+     */
+    def submit (worker: Int)(task: => Unit) {
+        pending.incrementAndGet ()
+        executors (worker).execute (new Runnable
+        {
+            def run () {
+                try {
+                    task
+                    outbox.flush ()
+                }
+                catch {
+                    case e: Throwable =>
+                        outbox.clear ()
+                        failure.compareAndSet (null, e)
+                }
+                finally {
+                    // the flush above submitted all follow-up tasks, hence zero pending tasks means quiescence
+                    if (pending.decrementAndGet () == 0)
+                        lock.synchronized (lock.notifyAll ())
+                }
+            }
+        })
+    }
+
+    /**
+     * Submits the changes buffered by the current thread.
+     */
+    def flush () {
+        outbox.flush ()
+    }
+
+    /**
+     * Submits the changes buffered by the current thread and waits until all workers are idle,
+     * i.e., all changes were propagated to the results.
+     * Rethrows the first exception thrown by a worker.
+     */
+    def awaitQuiescence () {
+        flush ()
+        lock.synchronized {
+            while (pending.get () > 0)
+                lock.wait ()
+        }
+        val e = failure.getAndSet (null)
+        if (e != null)
+            throw new IllegalStateException ("a worker failed", e)
+    }
+
+    def table[V] (key: V => Any): PartitionedTable[V] =
+        new PartitionedTable[V](this, key)
+
+    /**
+     * Builds a copy of the query on every worker and merges the results of the copies.
+     * The plan must build the same operators on every worker, such that the n-th exchange of all workers correspond.
+     */
+    def query[V] (plan: Worker => Relation[V]): PartitionedResult[V] = {
+        val result = new PartitionedResult[V](this)
+        for (i <- 0 until workers) {
+            submit (i) {
+                result.merge (plan (workerContexts (i)))
+            }
+        }
+        awaitQuiescence ()
+        result
+    }
+
+    def shutdown () {
+        executors.foreach (_.shutdown ())
+    }
+}
@@ -0,0 +1,124 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.partition
+
+import idb.Relation
+import idb.observer.{NotifyObservers, Observable, Observer}
+
+/**
+ * The single logical result of a partitioned query.
+ * The results of all workers are merged into this relation, i.e., observers of this relation receive the events of
+ * all workers. Events are delivered on the threads of the workers, one at a time.
+ * Since the workers process changes asynchronously, the results are only complete after
+ * PartitionedExecution.awaitQuiescence.
+ *
+ * Observers must be registered before changes are made to the partitioned tables.
+ * A transaction ends once the results of all workers ended it, such that observers see one end per transaction.
+ */
+class PartitionedResult[V] (val execution: PartitionedExecution)
+    extends Relation[V]
+    with NotifyObservers[V]
+{
+
+    private var partitions: List[(Relation[V], Observer[V])] = Nil
+
+    // number of worker results that ended the current transaction
+    private var transactionEnds = 0
+
+    def isSet: Boolean = false
+
+    protected def lazyInitialize () {
+        /* do nothing */
+    }
+
+    override protected def children = synchronized (partitions.map (_._1))
+
+    override protected def childObservers (o: Observable[_]): Seq[Observer[_]] =
+        synchronized (partitions.filter (_._1 == o).map (_._2))
+
+    def foreach[T] (f: (V) => T) {
+        /* do nothing */
+    }
+
+    override def addObserver[U >: V] (o: Observer[U]) {
+        synchronized (super.addObserver (o))
+    }
+
+    override def removeObserver[U >: V] (o: Observer[U]) {
+        synchronized (super.removeObserver (o))
+    }
+
+    private[partition] def merge (relation: Relation[V]) {
+        val observer = new MergingObserver
+        relation addObserver observer
+        synchronized {
+            partitions = (relation, observer) :: partitions
+        }
+    }
+
+    /**
+     * Forwards the events of the result of a single worker.
+     */
+    private class MergingObserver extends Observer[V]
+    {
+        def updated (oldV: V, newV: V) {
+            PartitionedResult.this.synchronized (notify_updated (oldV, newV))
+        }
+
+        def removed (v: V) {
+            PartitionedResult.this.synchronized (notify_removed (v))
+        }
+
+        def removedAll (vs: Seq[V]) {
+            PartitionedResult.this.synchronized (notify_removedAll (vs))
+        }
+
+        def added (v: V) {
+            PartitionedResult.this.synchronized (notify_added (v))
+        }
+
+        def addedAll (vs: Seq[V]) {
+            PartitionedResult.this.synchronized (notify_addedAll (vs))
+        }
+
+        def endTransaction () {
+            PartitionedResult.this.synchronized {
+                transactionEnds += 1
+                if (transactionEnds == execution.workers) {
+                    transactionEnds = 0
+                    notify_endTransaction ()
+                }
+            }
+        }
+    }
+}
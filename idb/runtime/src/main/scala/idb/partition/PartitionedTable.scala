@@ -0,0 +1,98 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.partition
+
+import idb.{BagTable, Table}
+
+/**
+ * A table whose data is hash partitioned on key across the workers of an execution.
+ * Changes are forwarded asynchronously to the partition owned by the worker responsible for the key.
+ * Batches are submitted as one batch per worker. Single changes are buffered in the outbox of the calling thread
+ * until the table ends a transaction or the thread calls PartitionedExecution.flush or awaitQuiescence.
+ * Plans access the partition of their worker via Worker.table.
+ */
+class PartitionedTable[V] (val execution: PartitionedExecution, val key: V => Any)
+    extends Table[V]
+    with Destination[V]
+{
+    private val partitions: Array[BagTable[V]] = Array.fill (execution.workers)(BagTable.empty[V])
+
+    def isSet: Boolean = false
+
+    private[partition] def partition (worker: Int): BagTable[V] = partitions (worker)
+
+    private[partition] def table (worker: Int): Table[V] = partitions (worker)
+
+    private def owner (v: V): Int =
+        execution.partition (key (v))
+
+    override def update (oldV: V, newV: V) {
+        val oldWorker = owner (oldV)
+        val newWorker = owner (newV)
+        if (oldWorker == newWorker)
+            execution.outbox (this, newWorker)(_.update (oldV, newV))
+        else {
+            remove (oldV)
+            add (newV)
+        }
+    }
+
+    override def remove (v: V) {
+        execution.outbox.remove (this, owner (v), v)
+    }
+
+    override def removeAll (vs: Seq[V]) {
+        val outbox = execution.outbox
+        for (v <- vs)
+            outbox.remove (this, owner (v), v)
+        outbox.flush ()
+    }
+
+    override def add (v: V) {
+        execution.outbox.add (this, owner (v), v)
+    }
+
+    override def addAll (vs: Seq[V]) {
+        val outbox = execution.outbox
+        for (v <- vs)
+            outbox.add (this, owner (v), v)
+        outbox.flush ()
+    }
+
+    override def endTransaction () {
+        val outbox = execution.outbox
+        for (worker <- 0 until execution.workers)
+            outbox (this, worker)(_.endTransaction ())
+        outbox.flush ()
+    }
+}
@@ -0,0 +1,92 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.partition
+
+import idb.{BagTable, Relation}
+import scala.collection.mutable
+
+/**
+ * The view of a partitioned execution from within the plan of a single worker.
+ */
+class Worker (val execution: PartitionedExecution, val index: Int)
+{
+
+    private val inputs = mutable.ArrayBuffer[BagTable[_]]()
+
+    // number of workers that ended the current transaction, per exchange input
+    private val transactionEnds = mutable.ArrayBuffer[Int]()
+
+    private var exchanges = 0
+
+    /**
+     * Returns the partition of the table that is owned by this worker.
+     */
+    def table[V] (table: PartitionedTable[V]): Relation[V] =
+        table.partition (index)
+
+    /**
+     * Repartitions the deltas of relation on key.
+     * The returned relation contains the elements of relation on all workers whose key is owned by this worker.
+     */
+    def exchange[V] (relation: Relation[V], key: V => Any): Relation[V] = {
+        val id = exchanges
+        exchanges += 1
+        new Exchange[V](relation, key, execution, id)
+        input[V](id)
+    }
+
+    /**
+     * Returns the relation receiving the elements repartitioned by the exchange with the given id.
+     * Must only be called on the thread of this worker.
+     */
+    private[partition] def input[V] (id: Int): BagTable[V] = {
+        while (inputs.size <= id)
+            inputs += BagTable.empty[Any]
+        inputs (id).asInstanceOf[BagTable[V]]
+    }
+
+    /**
+     * Counts the end of a transaction sent by one worker to the input of the exchange with the given id.
+     * Returns true once all workers ended the transaction, i.e., when the input ends the transaction.
+     * Must only be called on the thread of this worker.
+     */
+    private[partition] def endTransaction (id: Int): Boolean = {
+        while (transactionEnds.size <= id)
+            transactionEnds += 0
+        transactionEnds (id) += 1
+        if (transactionEnds (id) < execution.workers)
+            return false
+        transactionEnds (id) = 0
+        true
+    }
+}
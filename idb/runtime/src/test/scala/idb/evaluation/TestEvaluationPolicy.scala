@@ -0,0 +1,120 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.evaluation
+
+import org.junit.Test
+import org.junit.Assert._
+import idb.BagTable
+import idb.operators.impl.SelectionView
+import idb.observer.Observer
+
+class TestEvaluationPolicy
+{
+
+    @Test
+    def testDeferredPropagatesOnRead () {
+        val table = BagTable.empty[Int]
+        val policy = EvaluationPolicy.deferred
+        val selection = new SelectionView[Int](policy.defer (table), _ % 2 == 0, false)
+        val result = policy.view (selection)
+        val materialized = selection.asMaterialized
+
+        table ++= (1 to 10)
+        table -= 4
+        table += 11
+        table -= 11
+        table.update (6, 8)
+
+        assertEquals (0, materialized.size)
+        assertEquals (9, policy.pendingEvents)
+
+        assertEquals (List (2, 8, 8, 10), result.asList.sorted)
+        assertEquals (0, policy.pendingEvents)
+        assertEquals (4, materialized.size)
+    }
+
+    @Test
+    def testFlushOfTransactionSendsNoEmptyBatches () {
+        val table = BagTable.empty[Int]
+        val policy = EvaluationPolicy.deferred
+        var events: List[String] = Nil
+        policy.defer (table).addObserver (new Observer[Int] {
+            def updated (oldV: Int, newV: Int) { events = "updated" :: events }
+            def removed (v: Int) { events = "removed" :: events }
+            def removedAll (vs: Seq[Int]) { events = "removedAll" :: events }
+            def added (v: Int) { events = "added" :: events }
+            def addedAll (vs: Seq[Int]) { events = "addedAll" :: events }
+            def endTransaction () { events = "endTransaction" :: events }
+        })
+
+        table.endTransaction ()
+        policy.flush ()
+        assertEquals (List ("endTransaction"), events)
+
+        events = Nil
+        table ++= Seq (1, 2)
+        table.endTransaction ()
+        policy.flush ()
+        assertEquals (List ("endTransaction", "addedAll"), events)
+    }
+
+    @Test
+    def testEagerPropagatesImmediately () {
+        val table = BagTable.empty[Int]
+        val policy = EvaluationPolicy.eager
+        val result = policy.view (new SelectionView[Int](policy.defer (table), _ % 2 == 0, false))
+
+        table ++= (1 to 10)
+        assertEquals (0, policy.pendingEvents)
+        assertEquals (5, result.size)
+    }
+
+    @Test
+    def testAdaptiveSwitchesOnReadWriteRatio () {
+        val table = BagTable.empty[Int]
+        val policy = new EvaluationPolicy (EvaluationMode.Adaptive, window = 10)
+        val result = policy.view (new SelectionView[Int](policy.defer (table), _ => true, false))
+
+        for (i <- 1 to 10)
+            table += i
+        assertTrue (policy.isDeferred)
+
+        for (i <- 11 to 20) {
+            table += i
+            assertTrue (result.contains (i))
+        }
+        assertFalse (policy.isDeferred)
+        assertEquals (2, policy.switches)
+        assertEquals (20, result.size)
+    }
+}
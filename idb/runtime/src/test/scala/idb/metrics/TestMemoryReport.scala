@@ -0,0 +1,87 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.metrics
+
+import org.junit.Test
+import org.junit.Assert._
+import idb.BagTable
+import idb.operators.impl.{DuplicateEliminationView, EquiJoinView}
+import idb.operators.impl.opt.TransactionalCrossProductView
+
+class TestMemoryReport
+{
+
+    @Test
+    def testJoinAndDuplicateElimination () {
+        val students = BagTable.empty[(Int, String)]
+        val grades = BagTable.empty[(Int, Int)]
+
+        val join = EquiJoinView (students, grades, Seq ((_: (Int, String))._1), Seq ((_: (Int, Int))._1), false)
+        val distinct = new DuplicateEliminationView (join, true)
+
+        students += ((1, "Sally"))
+        students += ((2, "Bob"))
+        grades += ((1, 1))
+        grades += ((1, 1))
+        grades += ((2, 3))
+
+        val report = MemoryReport (distinct)
+
+        // two materialized tables, two indices and the duplicate elimination
+        assertEquals (5, report.operators.size)
+        assertEquals (2L, distinct.retainedEntries)
+        // the materialized grades store two distinct elements, the index stores all three
+        assertEquals (2L + 2L + 2L + 3L + 2L, report.totalEntries)
+        assertTrue (report.totalBytes > 0)
+
+        // shared operators are only counted once
+        assertEquals (report.totalBytes, MemoryReport (distinct, join).totalBytes)
+    }
+
+    @Test
+    def testTransactionBuffers () {
+        val left = BagTable.empty[Int]
+        val right = BagTable.empty[Int]
+        val product = new TransactionalCrossProductView[Int, Int, (Int, Int)](left, right, (_, _), false)
+
+        left += 1
+        left += 1
+        left += 2
+        right -= 3
+
+        // the buffers store distinct elements until the transaction ends
+        assertEquals (3L, product.retainedEntries)
+        assertEquals (3L, MemoryReport (product).totalEntries)
+        assertTrue (product.estimatedBytes > 0)
+    }
+}
@@ -0,0 +1,119 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.metrics
+
+import org.junit.Test
+import org.junit.Assert._
+import idb.BagTable
+import idb.operators.impl.{ProjectionView, SelectionView}
+
+class TestProfile
+{
+
+    @Test
+    def testEventsAndState () {
+        val table = BagTable.empty[Int]
+        val selection = new SelectionView[Int](table, _ % 2 == 0, false)
+        val projection = new ProjectionView[Int, String](selection, _.toString, false)
+        val result = projection.asMaterialized
+
+        val profile = Profile.instrument (result)
+
+        table ++= (1 to 10)
+        table += 12
+        table -= 12
+
+        assertEquals (12L, profile (table).eventsOut)
+        assertEquals (12L, profile (selection).eventsIn)
+        assertEquals (1L, profile (selection).batchesIn)
+        assertEquals (10, profile (selection).maxBatchIn)
+        assertEquals (7L, profile (selection).eventsOut)
+        assertEquals (7L, profile (projection).eventsIn)
+        assertEquals (7L, profile (result).eventsIn)
+        assertEquals (5L, profile (result).stateSize)
+        assertEquals (-1L, profile (projection).stateSize)
+        assertTrue (profile (selection).percentile (0.99) > 0)
+
+        assertEquals (5, profile.toCSV.split ("\n").length)
+        assertTrue (profile.toJSON.contains ("\"eventsIn\": 12"))
+    }
+
+    @Test
+    def testUninstrument () {
+        val table = BagTable.empty[Int]
+        val selection = new SelectionView[Int](table, _ % 2 == 0, false)
+        val result = selection.asMaterialized
+
+        val profile = Profile.instrument (result)
+        table += 2
+        profile.uninstrument ()
+        table += 4
+
+        assertEquals (1L, profile (selection).eventsIn)
+        assertEquals (2, result.size)
+
+        // the original observers are registered again
+        table -= 2
+        assertEquals (List (4), result.asList)
+    }
+
+    @Test
+    def testEveryBatchIsCounted () {
+        val metrics = new OperatorMetrics (BagTable.empty[Int])
+        metrics.recordBatchIn (1)
+        metrics.recordBatchIn (0)
+        metrics.recordIn (1)
+        metrics.recordBatchOut (1)
+
+        assertEquals (2L, metrics.batchesIn)
+        assertEquals (1, metrics.maxBatchIn)
+        assertEquals (2L, metrics.eventsIn)
+        assertEquals (1L, metrics.batchesOut)
+    }
+
+    @Test
+    def testNamesAreQuotedInJSON () {
+        assertEquals ("\"a\\\"b\\\\c\\n\\u0001\"", Profile.quote ("a\"b\\c\n" + 1.toChar))
+
+        val anonymous = new BagTable[Int] {}
+        val json = Profile.instrument (anonymous).toJSON
+        assertTrue (json.contains ("\"operator\": " + Profile.quote (Profile.nameOf (anonymous))))
+    }
+
+    @Test
+    def testNameOfAnonymousOperator () {
+        val anonymous = new BagTable[Int] {}
+        assertTrue (Profile.nameOf (anonymous).startsWith (anonymous.getClass.getName + "@"))
+        assertTrue (Profile.nameOf (BagTable.empty[Int]).startsWith ("BagTable@"))
+    }
+}
@@ -0,0 +1,129 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.operators.impl.batch
+
+import org.junit.Test
+import org.junit.Assert._
+import idb.BagTable
+import idb.operators.impl.{ProjectionView, SelectionView}
+import idb.observer.Observer
+import scala.collection.mutable.ArrayBuffer
+
+class TestChunks
+{
+
+    @Test
+    def testSelectionVectorIsPassedAlong () {
+        val table = BagTable.empty[Int]
+        val selection = new SelectionView[Int](table, _ % 3 == 0, false)
+        val projection = new ProjectionView[Int, String](selection, _.toString, false)
+        val result = projection.asMaterialized
+
+        var batches: List[Seq[Any]] = Nil
+        selection.addObserver (new Observer[Any] {
+            def updated (oldV: Any, newV: Any) {}
+            def removed (v: Any) {}
+            def removedAll (vs: Seq[Any]) {}
+            def added (v: Any) {}
+            def addedAll (vs: Seq[Any]) { batches = vs :: batches }
+            def endTransaction () {}
+        })
+
+        table ++= (1 to 10)
+        table --= Seq (3, 4)
+
+        val chunk = batches.head.asInstanceOf[Chunk[Int]]
+        assertFalse (chunk.isDense)
+        assertEquals (Seq (3, 6, 9), chunk)
+        assertEquals (List ("6", "9"), result.asList.sorted)
+    }
+
+    @Test
+    def testSelectionIgnoresFailingElements () {
+        val table = BagTable.empty[Seq[Int]]
+        val selection = new SelectionView[Seq[Int]](table, _ (1) > 0, false)
+        val result = selection.asMaterialized
+
+        table ++= Seq (Seq (1, 2), Seq (1), Seq (1, 0), Seq (3, 4))
+
+        assertEquals (Set (Seq (1, 2), Seq (3, 4)), result.asList.toSet)
+    }
+
+    @Test
+    def testChunkOfChunk () {
+        val chunk = Chunk (Seq ("a", "b", "c", "d"))
+        val selected = BatchPredicate[String](_ != "b").select (chunk)
+        val reselected = BatchPredicate[String](_ != "c").select (selected)
+        val mapped = BatchFunction[String, Int](_.charAt (0).toInt).map (reselected)
+
+        assertEquals (Seq ("a", "c", "d"), selected)
+        assertEquals (Seq ("a", "d"), reselected)
+        assertSame (chunk.elements, reselected.elements)
+        assertTrue (mapped.isDense)
+        assertEquals (Seq (97, 100), mapped)
+    }
+
+    @Test
+    def testIndexedSeqIsNotCopied () {
+        val vs = Vector ("a", "b", "c")
+        val chunk = Chunk (vs)
+        val selected = BatchPredicate[String](_ != "a").select (chunk)
+
+        assertSame (vs, chunk.elements)
+        assertSame (vs, selected.elements)
+        assertEquals (Seq ("b", "c"), selected)
+    }
+
+    @Test
+    def testMutableSeqIsCopied () {
+        val table = BagTable.empty[Int]
+        val selection = new SelectionView[Int](table, _ > 1, false)
+        var batch: Seq[Any] = null
+        selection.addObserver (new Observer[Any] {
+            def updated (oldV: Any, newV: Any) {}
+            def removed (v: Any) {}
+            def removedAll (vs: Seq[Any]) {}
+            def added (v: Any) {}
+            def addedAll (vs: Seq[Any]) { batch = vs }
+            def endTransaction () {}
+        })
+
+        val buffer = ArrayBuffer (1, 2, 3, 4)
+        table ++= buffer
+        buffer (1) = 0
+        buffer.clear ()
+
+        assertNotSame (buffer, batch.asInstanceOf[Chunk[Int]].elements)
+        assertEquals (Seq (2, 3, 4), batch)
+    }
+}
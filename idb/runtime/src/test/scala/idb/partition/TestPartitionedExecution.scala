@@ -0,0 +1,191 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.partition
+
+import org.junit.Test
+import org.junit.Assert._
+import idb.BagTable
+import idb.operators.impl.EquiJoinView
+import idb.observer.Observer
+import java.util.concurrent.atomic.AtomicInteger
+
+class TestPartitionedExecution
+{
+
+    val leftData = for (i <- 1 to 200) yield (i % 17, i)
+
+    val rightData = for (i <- 1 to 100) yield (i, i % 13)
+
+    @Test
+    def testJoinOnPartitioningKey () {
+        val execution = new PartitionedExecution (4)
+        val left = execution.table[(Int, Int)](_._1)
+        val right = execution.table[(Int, Int)](_._2)
+        val result = execution.query (worker =>
+            EquiJoinView (worker.table (left), worker.table (right), Seq ((_: (Int, Int))._1), Seq ((_: (Int, Int))._2), false)
+        ).asMaterialized
+
+        left ++= leftData
+        right ++= rightData
+        left --= leftData.take (50)
+        execution.awaitQuiescence ()
+
+        assertEquals (expectedJoin (leftData.drop (50), rightData), result.asList.sortBy (_.toString))
+        execution.shutdown ()
+    }
+
+    @Test
+    def testJoinWithExchange () {
+        val execution = new PartitionedExecution (3)
+        val left = execution.table[(Int, Int)](_._2)
+        val right = execution.table[(Int, Int)](_._1)
+        val result = execution.query (worker =>
+            EquiJoinView (worker.exchange (worker.table (left), (_: (Int, Int))._1), worker.exchange (worker.table (right), (_: (Int, Int))._2),
+                Seq ((_: (Int, Int))._1), Seq ((_: (Int, Int))._2), false)
+        ).asMaterialized
+
+        left ++= leftData
+        for (v <- rightData)
+            right += v
+        right.update ((1, 1), (1, 2))
+        execution.awaitQuiescence ()
+
+        val updatedRight = rightData.map (v => if (v == (1, 1)) (1, 2) else v)
+        assertEquals (expectedJoin (leftData, updatedRight), result.asList.sortBy (_.toString))
+        execution.shutdown ()
+    }
+
+    @Test
+    def testOneBatchPerWorker () {
+        val workers = 3
+        val execution = new PartitionedExecution (workers)
+        val table = execution.table[(Int, Int)](_._1)
+        val partitionCalls = new CallCounter
+        val exchangeCalls = new CallCounter
+        execution.query (worker => {
+            val partition = worker.table (table)
+            partition addObserver partitionCalls
+            val exchanged = worker.exchange (partition, (_: (Int, Int))._2)
+            exchanged addObserver exchangeCalls
+            exchanged
+        })
+
+        for (v <- leftData)
+            table += v
+        execution.awaitQuiescence ()
+
+        assertEquals (0, partitionCalls.single.get ())
+        assertEquals (workers, partitionCalls.batches.get ())
+        assertEquals (0, exchangeCalls.single.get ())
+        assertTrue (exchangeCalls.batches.get () <= workers * workers)
+
+        table --= leftData
+        execution.awaitQuiescence ()
+
+        assertEquals (0, partitionCalls.single.get ())
+        assertEquals (2 * workers, partitionCalls.batches.get ())
+        execution.shutdown ()
+    }
+
+    @Test
+    def testOneEndPerTransaction () {
+        val workers = 3
+        val execution = new PartitionedExecution (workers)
+        val table = execution.table[(Int, Int)](_._1)
+        val exchangeCalls = new CallCounter
+        val resultCalls = new CallCounter
+        val result = execution.query (worker => {
+            val exchanged = worker.exchange (worker.table (table), (_: (Int, Int))._2)
+            exchanged addObserver exchangeCalls
+            exchanged
+        })
+        result addObserver resultCalls
+
+        table ++= leftData
+        table.endTransaction ()
+        execution.awaitQuiescence ()
+
+        assertEquals (workers, exchangeCalls.ends.get ())
+        assertEquals (1, resultCalls.ends.get ())
+
+        table --= leftData
+        table.endTransaction ()
+        execution.awaitQuiescence ()
+
+        assertEquals (2 * workers, exchangeCalls.ends.get ())
+        assertEquals (2, resultCalls.ends.get ())
+        execution.shutdown ()
+    }
+
+    class CallCounter extends Observer[Any]
+    {
+        val single = new AtomicInteger ()
+
+        val batches = new AtomicInteger ()
+
+        val ends = new AtomicInteger ()
+
+        def updated (oldV: Any, newV: Any) {
+            single.incrementAndGet ()
+        }
+
+        def removed (v: Any) {
+            single.incrementAndGet ()
+        }
+
+        def removedAll (vs: Seq[Any]) {
+            batches.incrementAndGet ()
+        }
+
+        def added (v: Any) {
+            single.incrementAndGet ()
+        }
+
+        def addedAll (vs: Seq[Any]) {
+            batches.incrementAndGet ()
+        }
+
+        def endTransaction () {
+            ends.incrementAndGet ()
+        }
+    }
+
+    def expectedJoin (l: Seq[(Int, Int)], r: Seq[(Int, Int)]): List[((Int, Int), (Int, Int))] = {
+        val left = BagTable.empty[(Int, Int)]
+        val right = BagTable.empty[(Int, Int)]
+        val join = EquiJoinView (left, right, Seq ((_: (Int, Int))._1), Seq ((_: (Int, Int))._2), false).asMaterialized
+        left ++= l
+        right ++= r
+        join.asList.sortBy (_.toString)
+    }
+}
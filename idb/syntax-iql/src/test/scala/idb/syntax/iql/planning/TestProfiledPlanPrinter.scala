@@ -0,0 +1,66 @@
+/* License (BSD Style License):
+ *  Copyright (c) 2009, 2011
+ *  Software Technology Group
+ *  Department of Computer Science
+ *  Technische Universität Darmstadt
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  - Neither the name of the Software Technology Group or Technische
+ *    Universität Darmstadt nor the names of its contributors may be used to
+ *    endorse or promote products derived from this software without specific
+ *    prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *  AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *  IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *  ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ *  LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *  CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *  SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *  INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *  CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *  ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *  POSSIBILITY OF SUCH DAMAGE.
+ */
+package idb.syntax.iql.planning
+
+import idb.BagTable
+import idb.metrics.Profile
+import idb.schema.university._
+import idb.syntax.iql._
+import idb.syntax.iql.IR._
+import org.junit.Test
+import org.junit.Assert._
+
+class TestProfiledPlanPrinter
+{
+
+    @Test
+    def testAnnotatesCompiledOperators () {
+        val table = BagTable.empty[Student]
+        val query = plan (
+            SELECT (*) FROM table WHERE ((s: Rep[Student]) => s.matriculationNumber < 5)
+        )
+        val result = compile (query).asMaterialized
+        val profile = Profile.instrument (result)
+
+        table += Student (1, "John", "Doe")
+        table += Student (6, "Sally", "Fields")
+
+        val printed = ProfiledPlanPrinter (query, profile)
+        profile.uninstrument ()
+
+        val firstLine = printed.split ("\n")(0)
+        assertTrue (printed, firstLine.contains ("[in=2 out=1 "))
+        assertTrue (printed, printed.contains ("[in=0 out=2 "))
+        assertEquals (PlanPrinter (query).split ("\n").length, printed.split ("\n").length)
+    }
+}
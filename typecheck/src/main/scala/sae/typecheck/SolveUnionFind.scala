@@ -0,0 +1,318 @@
+package sae.typecheck
+
+import idb.operators.{NotSelfMaintainableAggregateFunctionFactory, NotSelfMaintainableAggregateFunction}
+
+import sae.typecheck.Constraint.Unsolvable
+import TypeStuff.TSubst
+import SolveHelper._
+
+import scala.collection.mutable
+
+/**
+ * Persistent union-find over type variables, where the representative of a class may be bound to a non-variable type.
+ * The state is an immutable Version. Edits replace the current version by a new one, which shares most of its
+ * structure with the old one, hence a version doubles as checkpoint to roll back to and as solution that is not
+ * affected by later edits. Path compression only happens during edits; reading a version does not change it.
+ */
+class TypeUnionFind {
+  import TypeUnionFind._
+
+  private var version = Version.empty
+  private var solved: Solution = null
+
+  def checkpoint: Version = version
+
+  def rollback(checkpoint: Version) {
+    version = checkpoint
+  }
+
+  def variables: Seq[Symbol] = version.names
+
+  /**
+   * The current solution as substitution, which resolves variables on demand and does not reflect later edits.
+   */
+  def solution: TSubst = {
+    if (solved == null || (solved.version ne version))
+      solved = new Solution(version)
+    solved
+  }
+
+  private def node(x: Symbol): Int = version.ids.get(x) match {
+    case Some(i) => i
+    case None =>
+      val v = version
+      val i = v.names.size
+      version = Version(v.ids + (x -> i), v.names :+ x, v.parent :+ i, v.rank :+ 0, v.binding :+ null)
+      i
+  }
+
+  private def setParent(i: Int, p: Int) {
+    version = version.copy(parent = version.parent.updated(i, p))
+  }
+
+  private def setRank(i: Int, r: Int) {
+    version = version.copy(rank = version.rank.updated(i, r))
+  }
+
+  private def setBinding(i: Int, t: Type) {
+    version = version.copy(binding = version.binding.updated(i, t))
+  }
+
+  private def binding(i: Int): Type = version.binding(i)
+
+  private def rank(i: Int): Int = version.rank(i)
+
+  private def find(i: Int): Int = {
+    val root = version.root(i)
+    var j = i
+    while (version.parent(j) != root) {
+      val next = version.parent(j)
+      setParent(j, root)
+      j = next
+    }
+    root
+  }
+
+  /**
+   * Unifies a and b. If unification fails, the union-find may have been changed partially,
+   * i.e., the caller rolls back to a checkpoint taken before.
+   */
+  def unify(a: Type, b: Type): Boolean = (a, b) match {
+    case (TVar(x), _) => unifyVar(find(node(x)), b)
+    case (_, TVar(y)) => unifyVar(find(node(y)), a)
+    case (TFun(a1, a2), TFun(b1, b2)) => unify(a1, b1) && unify(a2, b2)
+    case (Root.TRoot(t1), Root.TRoot(t2)) => unify(t1, t2)
+    case _ => a.unify(b) match {
+      case None => false
+      case Some(s) => s.forall(kv => unify(TVar(kv._1), kv._2))
+    }
+  }
+
+  private def unifyVar(r: Int, t: Type): Boolean = t match {
+    case TVar(y) =>
+      val s = find(node(y))
+      r == s || union(r, s)
+    case _ =>
+      val b = binding(r)
+      if (b != null)
+        unify(b, t)
+      else if (occurs(r, t))
+        false
+      else {
+        setBinding(r, t)
+        true
+      }
+  }
+
+  private def union(r: Int, s: Int): Boolean = {
+    val br = binding(r)
+    val bs = binding(s)
+    if (br != null && occurs(s, br) || bs != null && occurs(r, bs))
+      return false
+
+    val (root, child) = if (rank(r) < rank(s)) (s, r) else (r, s)
+    if (rank(r) == rank(s))
+      setRank(root, rank(root) + 1)
+    setParent(child, root)
+
+    val broot = binding(root)
+    val bchild = binding(child)
+    if (bchild == null)
+      true
+    else if (broot == null) {
+      setBinding(root, bchild)
+      true
+    }
+    else
+      unify(broot, bchild)
+  }
+
+  private def occurs(r: Int, t: Type): Boolean = t match {
+    case TVar(x) => version.ids.get(x) match {
+      case None => false
+      case Some(i) =>
+        val s = find(i)
+        s == r || binding(s) != null && occurs(r, binding(s))
+    }
+    case _ => t.vars.exists(x => occurs(r, TVar(x)))
+  }
+}
+
+object TypeUnionFind {
+
+  /**
+   * An immutable state of a TypeUnionFind; unbound representatives have a null binding.
+   */
+  case class Version(ids: Map[Symbol, Int], names: Vector[Symbol], parent: Vector[Int], rank: Vector[Int], binding: Vector[Type]) {
+    def root(i: Int): Int = {
+      var r = i
+      while (parent(r) != r)
+        r = parent(r)
+      r
+    }
+  }
+
+  object Version {
+    val empty = Version(Map(), Vector(), Vector(), Vector(), Vector())
+  }
+
+  /**
+   * The solution of a version as substitution. A variable is resolved when it is looked up and the result is
+   * memoized, such that handing out a solution costs O(1) and a lookup only touches the classes it depends on.
+   */
+  class Solution(val version: Version) extends Map[Symbol, Type] {
+    private val resolved = mutable.HashMap[Symbol, Option[Type]]()
+
+    def get(x: Symbol): Option[Type] = resolved.get(x) match {
+      case Some(t) => t
+      case None =>
+        val t = version.ids.get(x) match {
+          case None => None
+          case Some(i) =>
+            val r = version.root(i)
+            val b = version.binding(r)
+            if (b != null) Some(b.subst(this))
+            else if (r != i) Some(TVar(version.names(r)))
+            else None
+        }
+        resolved(x) = t
+        t
+    }
+
+    def iterator: Iterator[(Symbol, Type)] = version.names.iterator.flatMap(x => get(x).map(x -> _))
+    def +[B >: Type](kv: (Symbol, B)): Map[Symbol, B] = Map[Symbol, B]() ++ iterator + kv
+    def -(x: Symbol): Map[Symbol, Type] = Map[Symbol, Type]() ++ iterator - x
+  }
+}
+
+/**
+ * Solves constraints incrementally on a TypeUnionFind.
+ * Each added constraint records the version of the union-find before it as checkpoint. Removing a constraint rolls
+ * back to the checkpoint of the constraint and replays the constraints added after it, instead of recomputing the
+ * whole solution. Removals are applied lazily, such that a batch of removals requires a single rollback.
+ * get returns the current version of the union-find as solution in O(1); variables are resolved on lookup.
+ *
+ * Removing the constraint at position i of n costs the replay of the n - i constraints added after it.
+ * Removing recently added constraints is cheap, but removing one of the first constraints costs as much as solving
+ * all constraints again, which is the same worst case as SolveIntern.
+ *
+ * Unlike SolveIntern, a constraint is solved atomically: if it cannot be unified, all bindings made for it are
+ * rolled back and it only shows up as unsolvable. SolveIntern keeps the bindings of the solution of an unsolvable
+ * constraint that were made before the conflict. Hence, for ill-typed programs the types reported alongside
+ * unsolvable constraints may be less instantiated than with SolveIntern.
+ */
+class SolveUnionFindIntern[Domain <: AnyRef](val f: Domain => Constraint) extends NotSelfMaintainableAggregateFunction[Domain, ()=>Result] with Resetable {
+  private var uf = new TypeUnionFind
+
+  // constraints in the order they were added; removed constraints are null until the next replay
+  private val constraints = mutable.ArrayBuffer[Constraint]()
+  private val checkpoints = mutable.ArrayBuffer[TypeUnionFind.Version]()
+  private val solved = mutable.ArrayBuffer[Boolean]()
+
+  // positions of a constraint in constraints, most recent first
+  private val positions = mutable.HashMap[Constraint, List[Int]]()
+  private val unsolved = mutable.HashMap[Constraint, Int]()
+
+  // first position invalidated by a removal
+  private var replayFrom = Int.MaxValue
+
+  def reset() {
+    uf = new TypeUnionFind
+    constraints.clear()
+    checkpoints.clear()
+    solved.clear()
+    positions.clear()
+    unsolved.clear()
+    replayFrom = Int.MaxValue
+  }
+
+  private def push(c: Constraint) {
+    val checkpoint = uf.checkpoint
+    val ok = c match {
+      case EqConstraint(t1, t2) => uf.unify(t1, t2)
+      case _ => c.solve match {
+        case None => false
+        case Some(s) => s.forall(kv => uf.unify(TVar(kv._1), kv._2))
+      }
+    }
+    if (!ok) {
+      uf.rollback(checkpoint)
+      unsolved(c) = unsolved.getOrElse(c, 0) + 1
+    }
+    positions(c) = constraints.size :: positions.getOrElse(c, Nil)
+    constraints += c
+    checkpoints += checkpoint
+    solved += ok
+  }
+
+  private def forget(i: Int) {
+    val c = constraints(i)
+    positions(c).tail match {
+      case Nil => positions -= c
+      case rest => positions(c) = rest
+    }
+    if (!solved(i))
+      unsolved(c) match {
+        case 1 => unsolved -= c
+        case n => unsolved(c) = n - 1
+      }
+  }
+
+  private def settle() {
+    val from = replayFrom
+    replayFrom = Int.MaxValue
+    if (from >= constraints.size)
+      return
+
+    val replay = for (i <- from until constraints.size if constraints(i) != null) yield constraints(i)
+    for (i <- constraints.size - 1 to from by -1 if constraints(i) != null)
+      forget(i)
+
+    uf.rollback(checkpoints(from))
+    constraints.reduceToSize(from)
+    checkpoints.reduceToSize(from)
+    solved.reduceToSize(from)
+
+    replay foreach push
+  }
+
+  def get = () => {
+    settle()
+    val result: Result = (uf.solution, unsolved.keySet.toSet)
+    result
+  }
+
+  def add(d: Domain, data: Seq[Domain]) = {
+    push(f(d))
+    ()=>get()
+  }
+
+  def remove(d: Domain, data: Seq[Domain]) = {
+    val c = f(d)
+    positions.get(c).flatMap(_.headOption) match {
+      case None =>
+      case Some(i) =>
+        forget(i)
+        constraints(i) = null
+        replayFrom = Math.min(replayFrom, i)
+    }
+    ()=>get()
+  }
+
+  def update(oldV: Domain, newV: Domain, data: Seq[Domain]) = {
+    remove(oldV, data)
+    add(newV, data)
+    ()=>get()
+  }
+}
+
+object SolveUnionFind
+{
+  def apply[Domain <: AnyRef](f: (Domain => Constraint)) = {
+    new NotSelfMaintainableAggregateFunctionFactory[Domain, ()=>Result] {
+      def apply(): NotSelfMaintainableAggregateFunction[Domain, ()=>Result] = {
+        new SolveUnionFindIntern[Domain](f)
+      }
+    }
+  }
+}
@@ -119,8 +119,17 @@ object ConstraintTypeCheck extends TypeCheck {
     )
   )
 
-  val solver = Solve[Constraint](x => x)()
+  var solver = SolveUnionFind[Constraint](x => x)()
   var lastConstraints = Predef.Set[Constraint]()
+
+  /**
+   * Replaces the constraint solver, e.g., to compare solvers on the same trees.
+   * The next type check passes all constraints of the root to the new solver.
+   */
+  def useSolver(factory: idb.operators.NotSelfMaintainableAggregateFunctionFactory[Constraint, () => SolveHelper.Result]) {
+    solver = factory()
+    lastConstraints = Predef.Set()
+  }
   val rootTypeExtractor: ConstraintData => Either[Type, TError] = (x: ConstraintData) => {
     val (t, cons, reqs, free) = x
 //    Predef.println(s"Solve $x")
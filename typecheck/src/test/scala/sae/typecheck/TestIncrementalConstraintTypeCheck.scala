@@ -0,0 +1,78 @@
+package sae.typecheck
+
+import org.scalatest.{BeforeAndAfterEach, FunSuite}
+import Generator._
+import TypeStuff._
+
+/**
+ * Edits a tree incrementally with bottomup.ConstraintTypeCheck, once solving the constraints with
+ * SolveUnionFind and once with Solve, such that both solvers are compared end-to-end.
+ */
+class TestIncrementalConstraintTypeCheck extends FunSuite with BeforeAndAfterEach {
+  val checker = bottomup.ConstraintTypeCheck
+
+  override def beforeEach(): Unit = {
+    checker.reset()
+  }
+
+  override def afterEach(): Unit = {
+    checker.useSolver(SolveUnionFind[Constraint](x => x))
+  }
+
+  // like TestInitialChecking.makeVarUnshared, but the leaves in `numbers` are numbers instead of variables
+  def makeVarUnshared(h: Int, numbers: Set[Int]) = {
+    var i = 1
+    def next(): Exp = {val r = i; i += 1; if (numbers(r)) Num(r) else Var(Symbol(s"x$r"))}
+    var t = makeBinAddTree(h, () => next())
+    for (j <- 1 until i)
+      t = Abs(Symbol(s"x$j"), t)
+    t
+  }
+
+  def argTypes(t: Type): List[Type] = t match {
+    case TFun(t1, t2) => t1 :: argTypes(t2)
+    case _ => List(t)
+  }
+
+  // the abstraction of the last leaf is outermost, hence its argument comes first
+  def assertType(leaves: Int, numbers: Set[Int])(res: Either[Type, TError]) = res match {
+    case Left(t) =>
+      val ts = argTypes(t)
+      assertResult(leaves + 1, s"arity of $t")(ts.size)
+      assertResult(TNum)(ts.last)
+      for ((a, i) <- ts.init.zipWithIndex)
+        if (numbers(leaves - i))
+          assert(a.isInstanceOf[TVar], s"argument ${leaves - i} of $t")
+        else
+          assertResult(TNum, s"argument ${leaves - i} of $t")(a)
+    case Right(msg) => fail(msg)
+  }
+
+  // the initial check and the edits are timed separately, such that the cost of an edit can be compared to the tree size
+  def exercise(solver: String, height: Int) = {
+    val leaves = Math.pow(2, height - 1).toInt
+    val edits = 1 to leaves by leaves / 8
+    Util.logTime(s"check tree with height $height with $solver") {
+      assertType(leaves, Set())(checker.typecheck(makeVarUnshared(height, Set())))
+    }
+    Util.logTime(s"check ${2 * edits.size + 1} edits of tree with height $height with $solver") {
+      for (k <- edits) {
+        assertType(leaves, Set(k))(checker.typecheckIncremental(makeVarUnshared(height, Set(k))))
+        assertType(leaves, Set())(checker.typecheckIncremental(makeVarUnshared(height, Set())))
+      }
+      assertType(leaves, edits.toSet)(checker.typecheckIncremental(makeVarUnshared(height, edits.toSet)))
+    }
+  }
+
+  for (height <- Seq(7, 10)) {
+    test (s"incremental edits of var-unshared tree with height $height using union-find") {
+      checker.useSolver(SolveUnionFind[Constraint](x => x))
+      exercise("union-find", height)
+    }
+
+    test (s"incremental edits of var-unshared tree with height $height using substitution maps") {
+      checker.useSolver(Solve[Constraint](x => x))
+      exercise("substitution maps", height)
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package sae.typecheck
+
+import org.scalatest.FunSuite
+import TypeStuff._
+
+/**
+ * The union-find solver may choose other representatives than SolveIntern,
+ * hence solutions are checked by applying them to the active constraints.
+ */
+class TestSolveUnionFind extends FunSuite {
+
+  def x(i: Int) = TVar(Symbol(s"x_$i"))
+
+  def assertSolves(solver: SolveUnionFindIntern[Constraint], active: Seq[(Type, Type)]) = {
+    val (s, unres) = solver.get()
+    assert(unres.isEmpty, s"Unresolvable constraints $unres")
+    for ((t1, t2) <- active)
+      assertResult(t1.subst(s), s"for constraint $t1 == $t2")(t2.subst(s))
+    s
+  }
+
+  test ("rollback of dependent constraints") {
+    val solver = new SolveUnionFindIntern[Constraint](x => x)
+    val c1 = EqConstraint(TVar('x), TNum)
+    val c2 = EqConstraint(TString, TVar('x))
+    val c3 = EqConstraint(TVar('y), TVar('x))
+
+    solver.add(c1, Seq())
+    solver.add(c3, Seq())
+    solver.add(c2, Seq())
+    assertResult(Set(c2))(solver.get()._2)
+    assertResult(TNum)(TVar('y).subst(solver.get()._1))
+
+    solver.remove(c1, Seq())
+    assertResult(Set())(solver.get()._2)
+    assertResult(TString)(TVar('y).subst(solver.get()._1))
+
+    solver.remove(c2, Seq())
+    assertSolves(solver, Seq(TVar('y) -> TVar('x)))
+    assertResult(None)(solver.get()._1.get('z))
+  }
+
+  test ("occurs check") {
+    val solver = new SolveUnionFindIntern[Constraint](x => x)
+    val c = EqConstraint(TVar('f), TFun(TVar('a), TVar('b)))
+    solver.add(c, Seq())
+    solver.add(EqConstraint(TVar('a), TVar('f)), Seq())
+    assert(!solver.get()._2.isEmpty)
+
+    solver.remove(EqConstraint(TVar('a), TVar('f)), Seq())
+    assertSolves(solver, Seq(TVar('f) -> TFun(TVar('a), TVar('b))))
+  }
+
+  test ("transitive constraints") {
+    val solver = new SolveUnionFindIntern[Constraint](x => x)
+    val cs = Seq(
+      TFun(TVar('x), TVar('y)) -> TVar('f),
+      TFun(TVar('y), TVar('x)) -> TVar('f),
+      TVar('y) -> TFun(TVar('z1), TVar('z2)),
+      TVar('f) -> TFun(TFun(TVar('a), TVar('b)), TFun(TVar('c), TVar('c))))
+    for ((t1, t2) <- cs)
+      solver.add(EqConstraint(t1, t2), Seq())
+    val s = assertSolves(solver, cs)
+    assertResult(TVar('a).subst(s))(TVar('z2).subst(s))
+
+    solver.remove(EqConstraint(cs(1)._1, cs(1)._2), Seq())
+    assertSolves(solver, cs diff Seq(cs(1)))
+  }
+
+  test ("unsolvable constraint contributes no bindings") {
+    val c1 = EqConstraint(TVar('x), TNum)
+    val c2 = EqConstraint(TFun(TVar('y), TVar('x)), TFun(TString, TString))
+
+    val uf = new SolveUnionFindIntern[Constraint](x => x)
+    uf.add(c1, Seq())
+    uf.add(c2, Seq())
+    val (s, unres) = uf.get()
+    assertResult(Set(c2))(unres)
+    assertResult(TVar('y))(TVar('y).subst(s))
+
+    // SolveIntern keeps the binding of y made before the conflict on x
+    val map = new SolveIntern[Constraint](x => x)
+    map.add(c1, Seq())
+    map.add(c2, Seq())
+    assertResult(Set(c2))(map.get()._2)
+    assertResult(TString)(TVar('y).subst(map.get()._1))
+  }
+
+  test ("solution is not affected by later changes") {
+    val solver = new SolveUnionFindIntern[Constraint](x => x)
+    val c = EqConstraint(TVar('x), TNum)
+    solver.add(c, Seq())
+    val s1 = solver.get()._1
+    solver.remove(c, Seq())
+    solver.add(EqConstraint(TVar('x), TString), Seq())
+    val s2 = solver.get()._1
+    assertResult(TNum)(TVar('x).subst(s1))
+    assertResult(TString)(TVar('x).subst(s2))
+  }
+
+  // edits remove and re-add the most recent constraints and read one variable; their cost should not grow with n
+  for (n <- Seq(1000, 10000, 100000))
+    test (s"edits at the end of $n constraints") {
+      val solver = new SolveUnionFindIntern[Constraint](x => x)
+      for (i <- 1 to n)
+        solver.add(EqConstraint(x(i), TFun(x(i + 1), TNum)), Seq())
+      solver.get()
+
+      val edits = 100
+      val results = Util.logTime(s"apply $edits edits to $n constraints")(
+        for (i <- n - edits + 1 to n) yield {
+          val c = EqConstraint(x(i), TFun(x(i + 1), TNum))
+          solver.remove(c, Seq())
+          solver.add(c, Seq())
+          x(n).subst(solver.get()._1)
+        })
+      assert(results.forall(_ == TFun(x(n + 1), TNum)))
+    }
+
+  val its = 500
+  val removes = its/10
+  test (s"incremental removal from $its constraints") {
+    val chain = for (i <- 1 to its by 2) yield EqConstraint(TFun(x(i), x(i + 1)), TFun(x(i + 2), x(i + 3)))
+    val ground = EqConstraint(x(its + 1), TFun(TNum, TString))
+
+    val uf = new SolveUnionFindIntern[Constraint](x => x)
+    val map = new SolveIntern[Constraint](x => x)
+
+    def exercise(add: Constraint => Unit, remove: Constraint => Unit, get: () => TSubst) = {
+      chain foreach add
+      add(ground)
+      var results = Seq(x(1).subst(get()))
+      for (i <- chain.size - 1 to 0 by -(chain.size / removes)) {
+        remove(chain(i))
+        results :+= x(1).subst(get())
+        add(chain(i))
+      }
+      results
+    }
+
+    val ufResults = Util.logTime("solve with union-find")(
+      exercise(uf.add(_, Seq()), uf.remove(_, Seq()), () => uf.get()._1))
+    val mapResults = Util.logTime("solve with substitution maps")(
+      exercise(map.add(_, Seq()), map.remove(_, Seq()), () => map.get()._1))
+
+    assertResult(TFun(TNum, TString))(ufResults.head)
+    assertResult(mapResults.map(_.vars.isEmpty))(ufResults.map(_.vars.isEmpty))
+    assertResult(mapResults.filter(_.vars.isEmpty))(ufResults.filter(_.vars.isEmpty))
+  }
+}